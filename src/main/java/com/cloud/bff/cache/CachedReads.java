@@ -0,0 +1,45 @@
+package com.cloud.bff.cache;
+
+import com.cloud.bff.models.ResponseModel;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Read-through over a {@link CachedValue}: fresh entries are answered directly;
+ * entries within their stale-while-revalidate window are answered at once, marked
+ * stale, while {@code load} refreshes them in the background; anything older is
+ * loaded, and if that load fails the last good value is answered, marked stale,
+ * for as long as its stale-if-error window allows. {@code load} is expected to be
+ * single-flighted, so concurrent readers trigger one refresh.
+ */
+public final class CachedReads {
+
+    private CachedReads() {
+    }
+
+    public static <V> Mono<ResponseModel> serve(CachedValue<V> cached, Function<V, ResponseModel> toResponse,
+                                                Supplier<Mono<ResponseModel>> load) {
+        if (cached != null && cached.isFresh()) {
+            return Mono.just(toResponse.apply(cached.getValue()));
+        }
+
+        if (cached != null && cached.canRevalidate()) {
+            load.get().subscribe();
+            ResponseModel staleResponse = toResponse.apply(cached.getValue());
+            staleResponse.setStale(true);
+            return Mono.just(staleResponse);
+        }
+
+        return load.get().map(response -> {
+            if (response.getStatus() >= 500 && cached != null && cached.canServeOnError()) {
+                ResponseModel staleResponse = toResponse.apply(cached.getValue());
+                staleResponse.setStale(true);
+                staleResponse.setMessage("Upstream unavailable, serving last known data");
+                return staleResponse;
+            }
+            return response;
+        });
+    }
+}
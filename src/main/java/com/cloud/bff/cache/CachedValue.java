@@ -0,0 +1,50 @@
+package com.cloud.bff.cache;
+
+import java.time.Duration;
+
+/**
+ * A cached read together with the time it was stored, so one entry can be served as
+ * fresh, served stale while it is refreshed, or kept only as the fallback for when
+ * the upstream fails.
+ */
+public class CachedValue<V> {
+
+    private final V value;
+    private final long storedAtNanos;
+    private final Duration ttl;
+    private final Duration staleWhileRevalidate;
+    private final Duration staleIfError;
+
+    CachedValue(V value, Duration ttl, Duration staleWhileRevalidate, Duration staleIfError) {
+        this.value = value;
+        this.storedAtNanos = System.nanoTime();
+        this.ttl = ttl;
+        this.staleWhileRevalidate = staleWhileRevalidate;
+        this.staleIfError = staleIfError;
+    }
+
+    // How long Caffeine has to keep an entry for every use below
+    static Duration retention(Duration ttl, Duration staleWhileRevalidate, Duration staleIfError) {
+        return ttl.plus(staleWhileRevalidate.compareTo(staleIfError) > 0 ? staleWhileRevalidate : staleIfError);
+    }
+
+    public V getValue() {
+        return value;
+    }
+
+    public Duration getAge() {
+        return Duration.ofNanos(System.nanoTime() - storedAtNanos);
+    }
+
+    public boolean isFresh() {
+        return getAge().compareTo(ttl) < 0;
+    }
+
+    public boolean canRevalidate() {
+        return getAge().compareTo(ttl.plus(staleWhileRevalidate)) < 0;
+    }
+
+    public boolean canServeOnError() {
+        return getAge().compareTo(ttl.plus(staleIfError)) < 0;
+    }
+}
@@ -0,0 +1,111 @@
+package com.cloud.bff.cache;
+
+import com.cloud.bff.config.ReadCacheProperties;
+import com.cloud.bff.models.RoleModel;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Bounded, TTL-based cache for role reads. Hit, miss and eviction counters are
+ * published as cache.gets / cache.evictions with cache=roles.byId and cache=roles.all.
+ * Entries outlive their TTL so they can still be served stale (see {@link CachedValue}).
+ */
+@Component
+@EnableConfigurationProperties(ReadCacheProperties.class)
+public class RoleCache {
+
+    private static final String ALL_ROLES = "all";
+
+    private final ReadCacheProperties.Roles settings;
+    private final Cache<Long, CachedValue<RoleModel>> rolesById;
+    private final Cache<String, CachedValue<List<RoleModel>>> allRoles;
+    // Written under this cache's lock, together with the invalidations that move it on
+    private volatile long generation;
+
+    public RoleCache(ReadCacheProperties properties, MeterRegistry meterRegistry) {
+        this.settings = properties.getRoles();
+        Duration retention = CachedValue.retention(settings.getTtl(), settings.getStaleWhileRevalidate(),
+                settings.getStaleIfError());
+        this.rolesById = Caffeine.newBuilder()
+                .maximumSize(settings.getMaximumSize())
+                .expireAfterWrite(retention)
+                .recordStats()
+                .build();
+        this.allRoles = Caffeine.newBuilder()
+                .maximumSize(1)
+                .expireAfterWrite(retention)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, rolesById, "roles.byId");
+        CaffeineCacheMetrics.monitor(meterRegistry, allRoles, "roles.all");
+    }
+
+    /**
+     * Taken when a load starts and handed back when it stores what it read. Every
+     * invalidation moves it on, so a load that a write overtook is dropped instead of
+     * putting back the data the write just replaced.
+     */
+    public long generation() {
+        return generation;
+    }
+
+    // Fresh listing only; null when missing or past its TTL
+    public List<RoleModel> getAll() {
+        CachedValue<List<RoleModel>> entry = getAllEntry();
+        return entry != null && entry.isFresh() ? entry.getValue() : null;
+    }
+
+    public CachedValue<List<RoleModel>> getAllEntry() {
+        return settings.isEnabled() ? allRoles.getIfPresent(ALL_ROLES) : null;
+    }
+
+    public RoleModel get(Long id) {
+        CachedValue<RoleModel> entry = getEntry(id);
+        return entry != null && entry.isFresh() ? entry.getValue() : null;
+    }
+
+    public CachedValue<RoleModel> getEntry(Long id) {
+        return settings.isEnabled() ? rolesById.getIfPresent(id) : null;
+    }
+
+    public synchronized void putAll(List<RoleModel> roles, long loadGeneration) {
+        if (!settings.isEnabled() || loadGeneration != generation) {
+            return;
+        }
+        allRoles.put(ALL_ROLES, entry(List.copyOf(roles)));
+        for (RoleModel role : roles) {
+            rolesById.put(role.getId(), entry(role));
+        }
+    }
+
+    public synchronized void put(RoleModel role, long loadGeneration) {
+        if (settings.isEnabled() && loadGeneration == generation) {
+            rolesById.put(role.getId(), entry(role));
+        }
+    }
+
+    // A new role only changes the list, no cached single role
+    public synchronized void invalidateList() {
+        generation++;
+        allRoles.invalidateAll();
+    }
+
+    public synchronized void invalidate(Long id) {
+        generation++;
+        if (id != null) {
+            rolesById.invalidate(id);
+        }
+        allRoles.invalidateAll();
+    }
+
+    private <V> CachedValue<V> entry(V value) {
+        return new CachedValue<>(value, settings.getTtl(), settings.getStaleWhileRevalidate(), settings.getStaleIfError());
+    }
+}
@@ -0,0 +1,110 @@
+package com.cloud.bff.cache;
+
+import com.cloud.bff.config.ReadCacheProperties;
+import com.cloud.bff.models.UserModel;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Size-bounded user-by-id cache. Caffeine's W-TinyLFU policy only admits a new
+ * entry when it has been requested more often than the eviction victim, so the hot
+ * accounts survive scans (admin listing pages) that would flush a plain LRU.
+ * The full listing is kept apart as one snapshot so it never competes with them.
+ * Entries outlive their TTL so they can still be served stale (see {@link CachedValue}).
+ */
+@Component
+@EnableConfigurationProperties(ReadCacheProperties.class)
+public class UserCache {
+
+    private static final String ALL_USERS = "all";
+
+    private final ReadCacheProperties.Users settings;
+    private final Cache<Long, CachedValue<UserModel>> usersById;
+    private final Cache<String, CachedValue<List<UserModel>>> allUsers;
+    // Written under this cache's lock, together with the invalidations that move it on
+    private volatile long generation;
+
+    public UserCache(ReadCacheProperties properties, MeterRegistry meterRegistry) {
+        this.settings = properties.getUsers();
+        this.usersById = newBuilder(settings).recordStats().build();
+        this.allUsers = Caffeine.newBuilder()
+                .maximumSize(1)
+                .expireAfterWrite(CachedValue.retention(settings.getTtl(), settings.getStaleWhileRevalidate(),
+                        settings.getStaleIfError()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, usersById, "users.byId");
+        CaffeineCacheMetrics.monitor(meterRegistry, allUsers, "users.all");
+    }
+
+    static Caffeine<Object, Object> newBuilder(ReadCacheProperties.Users settings) {
+        return Caffeine.newBuilder()
+                .maximumSize(settings.getMaximumSize())
+                .expireAfterWrite(CachedValue.retention(settings.getTtl(), settings.getStaleWhileRevalidate(),
+                        settings.getStaleIfError()));
+    }
+
+    /**
+     * Taken when a load starts and handed back when it stores what it read. Every
+     * invalidation moves it on, so a load that a write overtook is dropped instead of
+     * putting back the data the write just replaced.
+     */
+    public long generation() {
+        return generation;
+    }
+
+    // Fresh listing only; null when missing or past its TTL
+    public List<UserModel> getAll() {
+        CachedValue<List<UserModel>> entry = getAllEntry();
+        return entry != null && entry.isFresh() ? entry.getValue() : null;
+    }
+
+    public CachedValue<List<UserModel>> getAllEntry() {
+        return settings.isEnabled() ? allUsers.getIfPresent(ALL_USERS) : null;
+    }
+
+    public UserModel get(Long id) {
+        CachedValue<UserModel> entry = getEntry(id);
+        return entry != null && entry.isFresh() ? entry.getValue() : null;
+    }
+
+    public CachedValue<UserModel> getEntry(Long id) {
+        return settings.isEnabled() ? usersById.getIfPresent(id) : null;
+    }
+
+    public synchronized void put(UserModel user, long loadGeneration) {
+        if (settings.isEnabled() && user.getId() != null && loadGeneration == generation) {
+            usersById.put(user.getId(), entry(user));
+        }
+    }
+
+    public synchronized void putAll(List<UserModel> users, long loadGeneration) {
+        if (settings.isEnabled() && loadGeneration == generation) {
+            allUsers.put(ALL_USERS, entry(List.copyOf(users)));
+        }
+    }
+
+    // A new user only changes the listing, no cached single user
+    public synchronized void invalidateList() {
+        generation++;
+        allUsers.invalidateAll();
+    }
+
+    public synchronized void invalidate(Long id) {
+        generation++;
+        if (id != null) {
+            usersById.invalidate(id);
+        }
+        allUsers.invalidateAll();
+    }
+
+    private <V> CachedValue<V> entry(V value) {
+        return new CachedValue<>(value, settings.getTtl(), settings.getStaleWhileRevalidate(), settings.getStaleIfError());
+    }
+}
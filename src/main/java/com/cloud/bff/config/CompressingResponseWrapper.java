@@ -0,0 +1,429 @@
+package com.cloud.bff.config;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.UnaryOperator;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Holds a response body back until it is complete so its size can be compared with the
+ * threshold, then writes it compressed or as it is. Streaming content types switch to
+ * compressing on the fly at their first flush, with a sync flush per write so each
+ * line still reaches the client as soon as it is produced. A body written with a
+ * {@link WriteListener} is not compressed: non-blocking writes go straight to the
+ * container's stream, which alone knows when it can take more.
+ * <p>
+ * Every body of a compressible type says {@code Vary: Accept-Encoding}, compressed or
+ * not, since another client could get it otherwise. A compressed body's ETag is made
+ * weak, so it never names the same bytes as the plain body; Spring compares
+ * {@code If-None-Match} weakly on GET, so revalidation still answers 304.
+ */
+class CompressingResponseWrapper extends HttpServletResponseWrapper {
+
+    private static final List<MediaType> STREAMING_TYPES =
+            List.of(MediaType.APPLICATION_NDJSON, MediaType.TEXT_EVENT_STREAM);
+
+    private final String encoding;
+    private final long threshold;
+    private final List<MediaType> compressibleTypes;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private final ServletOutputStream outputStream = new BodyStream();
+
+    private PrintWriter writer;
+    // Null while the body is still buffered; the stream it goes to once streaming started
+    private OutputStream target;
+    private DeflaterOutputStream compressor;
+    private CountingStream compressedCount;
+    private boolean passThrough;
+
+    private long rawBytes;
+    private long compressedBytes;
+    private long compressionNanos;
+    private boolean precompressed;
+
+    CompressingResponseWrapper(HttpServletResponse response, String encoding, long threshold,
+                               List<MediaType> compressibleTypes) {
+        super(response);
+        this.encoding = encoding;
+        this.threshold = threshold;
+        this.compressibleTypes = compressibleTypes;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() {
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() {
+        if (writer == null) {
+            String characterEncoding = getCharacterEncoding();
+            Charset charset = characterEncoding != null ? Charset.forName(characterEncoding) : StandardCharsets.UTF_8;
+            writer = new PrintWriter(new OutputStreamWriter(outputStream, charset));
+        }
+        return writer;
+    }
+
+    // The length is only known once the body is compressed, so ours is the one sent
+    @Override
+    public void setContentLength(int len) {
+        if (passThrough) {
+            super.setContentLength(len);
+        }
+    }
+
+    @Override
+    public void setContentLengthLong(long len) {
+        if (passThrough) {
+            super.setContentLengthLong(len);
+        }
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        if (passThrough || !HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            super.setHeader(name, value);
+        }
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        if (passThrough || !HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            super.addHeader(name, value);
+        }
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        outputStream.flush();
+    }
+
+    @Override
+    public void resetBuffer() {
+        if (target == null) {
+            buffer.reset();
+            rawBytes = 0;
+        }
+        super.resetBuffer();
+    }
+
+    @Override
+    public void reset() {
+        resetBuffer();
+        super.reset();
+    }
+
+    // The container writes error pages and redirects itself, without going through the buffer
+    @Override
+    public void sendError(int sc) throws IOException {
+        discard();
+        super.sendError(sc);
+    }
+
+    @Override
+    public void sendError(int sc, String msg) throws IOException {
+        discard();
+        super.sendError(sc, msg);
+    }
+
+    @Override
+    public void sendRedirect(String location) throws IOException {
+        discard();
+        super.sendRedirect(location);
+    }
+
+    /**
+     * Writes out whatever is still held back. A complete buffered body at or over the
+     * threshold is taken from {@code precompressedLookup} when that returns an already
+     * compressed copy, or compressed and handed to {@code precompressedStore}.
+     */
+    void finish(UnaryOperator<byte[]> precompressedLookup, BiConsumer<byte[], byte[]> precompressedStore)
+            throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        if (passThrough) {
+            return;
+        }
+
+        if (target == null) {
+            byte[] body = buffer.toByteArray();
+            buffer.reset();
+            target = getResponse().getOutputStream();
+            if (body.length == 0) {
+                // A 304 stands for whichever body was sent, so it carries the headers a compressed one would
+                if (getStatus() == HttpServletResponse.SC_NOT_MODIFIED) {
+                    varyOnEncoding();
+                    weakenETag();
+                }
+                return;
+            }
+            boolean compressible = isCompressible();
+            if (compressible) {
+                varyOnEncoding();
+            }
+            if (body.length < threshold || !compressible) {
+                getResponse().setContentLength(body.length);
+                target.write(body);
+                return;
+            }
+
+            byte[] compressed = precompressedLookup.apply(body);
+            precompressed = compressed != null;
+            if (compressed == null) {
+                compressed = compress(body);
+                precompressedStore.accept(body, compressed);
+            }
+            compressedBytes = compressed.length;
+            markEncoded();
+            getResponse().setContentLength(compressed.length);
+            target.write(compressed);
+        } else if (compressor != null) {
+            long start = System.nanoTime();
+            // Closing ends the deflater; the counting stream keeps the servlet stream open
+            compressor.close();
+            compressionNanos += System.nanoTime() - start;
+            compressedBytes = compressedCount.count;
+        }
+    }
+
+    private byte[] compress(byte[] body) throws IOException {
+        long start = System.nanoTime();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, body.length / 4));
+        try (DeflaterOutputStream deflater = newCompressor(out, false)) {
+            deflater.write(body);
+        }
+        compressionNanos += System.nanoTime() - start;
+        return out.toByteArray();
+    }
+
+    String getEncoding() {
+        return encoding;
+    }
+
+    boolean isCompressed() {
+        return compressedBytes > 0;
+    }
+
+    boolean isPrecompressed() {
+        return precompressed;
+    }
+
+    long getRawBytes() {
+        return rawBytes;
+    }
+
+    long getCompressedBytes() {
+        return compressedBytes;
+    }
+
+    long getCompressionNanos() {
+        return compressionNanos;
+    }
+
+    private void discard() {
+        buffer.reset();
+        passThrough = true;
+    }
+
+    /**
+     * Hands the body over to the container's stream for non-blocking writes. Whatever
+     * was held back is still written in blocking mode, before the listener is set; a
+     * body that is already being compressed cannot change mode halfway through.
+     */
+    private void writeNonBlocking(WriteListener writeListener) throws IOException {
+        if (compressor != null) {
+            throw new IllegalStateException("Cannot switch a compressed response to non-blocking writes");
+        }
+        ServletOutputStream out = getResponse().getOutputStream();
+        byte[] pending = buffer.toByteArray();
+        buffer.reset();
+        if (pending.length > 0) {
+            out.write(pending);
+        }
+        passThrough = true;
+        out.setWriteListener(writeListener);
+    }
+
+    private void write(byte[] bytes, int offset, int length) throws IOException {
+        rawBytes += length;
+        if (passThrough) {
+            getResponse().getOutputStream().write(bytes, offset, length);
+        } else if (target == null) {
+            buffer.write(bytes, offset, length);
+        } else if (compressor != null) {
+            long start = System.nanoTime();
+            compressor.write(bytes, offset, length);
+            compressionNanos += System.nanoTime() - start;
+        } else {
+            target.write(bytes, offset, length);
+        }
+    }
+
+    private void flush() throws IOException {
+        if (passThrough) {
+            getResponse().getOutputStream().flush();
+            return;
+        }
+        if (target == null) {
+            // Single documents are flushed once at the end by the message converter; keep holding them
+            if (!isStreaming()) {
+                return;
+            }
+            startStreaming();
+        }
+        if (compressor != null) {
+            long start = System.nanoTime();
+            compressor.flush();
+            compressionNanos += System.nanoTime() - start;
+        }
+        target.flush();
+    }
+
+    private void startStreaming() throws IOException {
+        OutputStream out = getResponse().getOutputStream();
+        if (isCompressible()) {
+            varyOnEncoding();
+            markEncoded();
+            compressedCount = new CountingStream(out);
+            compressor = newCompressor(compressedCount, true);
+            target = compressor;
+        } else {
+            target = out;
+        }
+        byte[] pending = buffer.toByteArray();
+        buffer.reset();
+        rawBytes -= pending.length;
+        write(pending, 0, pending.length);
+    }
+
+    private DeflaterOutputStream newCompressor(OutputStream out, boolean syncFlush) throws IOException {
+        return "gzip".equals(encoding) ? new GZIPOutputStream(out, 8192, syncFlush)
+                : new DeflaterOutputStream(out, syncFlush);
+    }
+
+    private void markEncoded() {
+        ((HttpServletResponse) getResponse()).setHeader(HttpHeaders.CONTENT_ENCODING, encoding);
+        weakenETag();
+    }
+
+    private void varyOnEncoding() {
+        CompressionFilter.varyOnEncoding((HttpServletResponse) getResponse());
+    }
+
+    private void weakenETag() {
+        String etag = getHeader(HttpHeaders.ETAG);
+        if (etag != null && !etag.startsWith("W/")) {
+            ((HttpServletResponse) getResponse()).setHeader(HttpHeaders.ETAG, "W/" + etag);
+        }
+    }
+
+    private boolean isCompressible() {
+        if (getHeader(HttpHeaders.CONTENT_ENCODING) != null) {
+            return false;
+        }
+        MediaType contentType = contentType();
+        return contentType != null && compressibleTypes.stream().anyMatch(type -> type.includes(contentType));
+    }
+
+    private boolean isStreaming() {
+        MediaType contentType = contentType();
+        return contentType != null && STREAMING_TYPES.stream().anyMatch(type -> type.isCompatibleWith(contentType));
+    }
+
+    private MediaType contentType() {
+        String contentType = getContentType();
+        try {
+            return contentType != null ? MediaType.parseMediaType(contentType) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private class BodyStream extends ServletOutputStream {
+
+        @Override
+        public void write(int b) throws IOException {
+            CompressingResponseWrapper.this.write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            CompressingResponseWrapper.this.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            CompressingResponseWrapper.this.flush();
+        }
+
+        @Override
+        public boolean isReady() {
+            if (!passThrough) {
+                return true;
+            }
+            try {
+                return getResponse().getOutputStream().isReady();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            try {
+                writeNonBlocking(writeListener);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static class CountingStream extends OutputStream {
+
+        private final OutputStream delegate;
+        private long count;
+
+        private CountingStream(OutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        // The servlet stream belongs to the container
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.cloud.bff.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Negotiates gzip or deflate from {@code Accept-Encoding} and compresses response
+ * bodies through {@link CompressingResponseWrapper}. Like Spring's ETag filter it
+ * also runs on the async dispatch, where reactive results are written. Responses
+ * carrying an ETag keep their compressed bytes, keyed by URL, tag and encoding, so
+ * polling the same unchanged listing is not compressed again on every hit; a copy is
+ * only reused for a body with the same SHA-256. Ratio and compression time are
+ * recorded per handler pattern.
+ */
+public class CompressionFilter extends OncePerRequestFilter {
+
+    private final CompressionProperties properties;
+    private final List<MediaType> compressibleTypes;
+    private final Cache<String, Precompressed> precompressed;
+    private final MeterRegistry meterRegistry;
+
+    public CompressionFilter(CompressionProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.compressibleTypes = MediaType.parseMediaTypes(properties.getMimeTypes());
+        this.precompressed = Caffeine.newBuilder()
+                .maximumWeight(properties.getPrecompressedCacheSize().toBytes())
+                .weigher((String key, Precompressed entry) ->
+                        key.length() + entry.digest().length + entry.body().length)
+                .build();
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        CompressingResponseWrapper wrapper = WebUtils.getNativeResponse(response, CompressingResponseWrapper.class);
+        if (wrapper == null) {
+            String encoding = negotiate(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+            if (!properties.isEnabled() || encoding == null) {
+                if (properties.isEnabled()) {
+                    // The content type is not known yet, and another Accept-Encoding could get this body compressed
+                    varyOnEncoding(response);
+                }
+                filterChain.doFilter(request, response);
+                return;
+            }
+            wrapper = new CompressingResponseWrapper(response, encoding,
+                    properties.getMinResponseSize().toBytes(), compressibleTypes);
+            response = wrapper;
+        }
+
+        filterChain.doFilter(request, response);
+
+        if (!isAsyncStarted(request)) {
+            String key = precompressedKey(request, wrapper);
+            // The body is hashed once for the lookup, and a miss stores its copy under that same hash
+            byte[][] digest = new byte[1][];
+            wrapper.finish(body -> {
+                if (key == null) {
+                    return null;
+                }
+                digest[0] = sha256(body);
+                return lookup(key, digest[0]);
+            }, (body, compressed) -> {
+                if (key != null) {
+                    precompressed.put(key, new Precompressed(digest[0], compressed));
+                }
+            });
+            record(request, wrapper);
+        }
+    }
+
+    // Once only: the async dispatch of the same request comes through here again
+    static void varyOnEncoding(HttpServletResponse response) {
+        if (!response.getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT_ENCODING)) {
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+    }
+
+    // gzip is preferred over deflate; identity (or nothing acceptable) leaves the body alone
+    private String negotiate(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return null;
+        }
+        Double gzip = null;
+        Double deflate = null;
+        double wildcard = 0;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            double quality = quality(tokens);
+            switch (tokens[0].trim().toLowerCase()) {
+                case "gzip", "x-gzip" -> gzip = quality;
+                case "deflate" -> deflate = quality;
+                case "*" -> wildcard = quality;
+                default -> {
+                }
+            }
+        }
+        double gzipQuality = gzip != null ? gzip : wildcard;
+        double deflateQuality = deflate != null ? deflate : wildcard;
+        if (gzipQuality > 0 && gzipQuality >= deflateQuality) {
+            return "gzip";
+        }
+        return deflateQuality > 0 ? "deflate" : null;
+    }
+
+    private double quality(String[] tokens) {
+        return Arrays.stream(tokens)
+                .skip(1)
+                .map(String::trim)
+                .filter(parameter -> parameter.startsWith("q="))
+                .findFirst()
+                .map(parameter -> {
+                    try {
+                        return Double.parseDouble(parameter.substring(2));
+                    } catch (NumberFormatException e) {
+                        return 0d;
+                    }
+                })
+                .orElse(1d);
+    }
+
+    private String precompressedKey(HttpServletRequest request, CompressingResponseWrapper response) {
+        String etag = response.getHeader(HttpHeaders.ETAG);
+        if (etag == null || response.getStatus() != HttpServletResponse.SC_OK || !"GET".equals(request.getMethod())) {
+            return null;
+        }
+        String query = request.getQueryString();
+        return response.getEncoding() + ' ' + etag + ' ' + request.getRequestURI() + (query != null ? '?' + query : "");
+    }
+
+    private byte[] lookup(String key, byte[] digest) {
+        Precompressed entry = precompressed.getIfPresent(key);
+        // The tag covers the data, not the rest of the body, so the bytes themselves have to match
+        return entry != null && MessageDigest.isEqual(entry.digest(), digest) ? entry.body() : null;
+    }
+
+    private byte[] sha256(byte[] body) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(body);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private void record(HttpServletRequest request, CompressingResponseWrapper response) {
+        if (!response.isCompressed()) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        String encoding = response.getEncoding();
+
+        DistributionSummary.builder("bff.http.compression.ratio")
+                .description("Compressed size over raw size of compressed response bodies")
+                .tags("uri", uri, "encoding", encoding)
+                .register(meterRegistry)
+                .record((double) response.getCompressedBytes() / response.getRawBytes());
+        if (response.isPrecompressed()) {
+            Counter.builder("bff.http.compression.precompressed.hits")
+                    .description("Responses written from an already compressed copy")
+                    .tags("uri", uri, "encoding", encoding)
+                    .register(meterRegistry)
+                    .increment();
+        } else {
+            Timer.builder("bff.http.compression.time")
+                    .description("Time spent compressing response bodies")
+                    .tags("uri", uri, "encoding", encoding)
+                    .register(meterRegistry)
+                    .record(response.getCompressionNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private record Precompressed(byte[] digest, byte[] body) {
+    }
+}
@@ -0,0 +1,54 @@
+package com.cloud.bff.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * gzip/deflate compression of response bodies. Bodies smaller than
+ * {@code minResponseSize} are sent as they are; streamed bodies are always compressed.
+ * Compressed copies of tagged responses are kept up to {@code precompressedCacheSize}.
+ */
+@ConfigurationProperties(prefix = "bff.compression")
+public class CompressionProperties {
+
+    private boolean enabled = true;
+    private DataSize minResponseSize = DataSize.ofKilobytes(1);
+    private List<String> mimeTypes = new ArrayList<>(List.of(
+            "application/json", "application/*+json", "application/x-ndjson", "text/plain", "text/html"));
+    private DataSize precompressedCacheSize = DataSize.ofMegabytes(16);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public DataSize getMinResponseSize() {
+        return minResponseSize;
+    }
+
+    public void setMinResponseSize(DataSize minResponseSize) {
+        this.minResponseSize = minResponseSize;
+    }
+
+    public List<String> getMimeTypes() {
+        return mimeTypes;
+    }
+
+    public void setMimeTypes(List<String> mimeTypes) {
+        this.mimeTypes = mimeTypes;
+    }
+
+    public DataSize getPrecompressedCacheSize() {
+        return precompressedCacheSize;
+    }
+
+    public void setPrecompressedCacheSize(DataSize precompressedCacheSize) {
+        this.precompressedCacheSize = precompressedCacheSize;
+    }
+}
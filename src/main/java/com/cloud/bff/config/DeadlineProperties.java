@@ -0,0 +1,50 @@
+package com.cloud.bff.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Time budget given to each incoming request. Clients may ask for a different budget
+ * in milliseconds through {@code header}; it is kept between the minimum and maximum.
+ */
+@ConfigurationProperties(prefix = "bff.deadline")
+public class DeadlineProperties {
+
+    private Duration defaultTimeout = Duration.ofSeconds(10);
+    private Duration minTimeout = Duration.ofMillis(200);
+    private Duration maxTimeout = Duration.ofSeconds(30);
+    private String header = "X-Request-Timeout";
+
+    public Duration getDefaultTimeout() {
+        return defaultTimeout;
+    }
+
+    public void setDefaultTimeout(Duration defaultTimeout) {
+        this.defaultTimeout = defaultTimeout;
+    }
+
+    public Duration getMinTimeout() {
+        return minTimeout;
+    }
+
+    public void setMinTimeout(Duration minTimeout) {
+        this.minTimeout = minTimeout;
+    }
+
+    public Duration getMaxTimeout() {
+        return maxTimeout;
+    }
+
+    public void setMaxTimeout(Duration maxTimeout) {
+        this.maxTimeout = maxTimeout;
+    }
+
+    public String getHeader() {
+        return header;
+    }
+
+    public void setHeader(String header) {
+        this.header = header;
+    }
+}
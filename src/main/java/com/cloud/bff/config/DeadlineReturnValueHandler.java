@@ -0,0 +1,102 @@
+package com.cloud.bff.config;
+
+import com.cloud.bff.models.ResponseModel;
+import com.cloud.bff.upstream.Deadline;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Puts a {@link Deadline} on every reactive controller result before Spring MVC
+ * subscribes to it. The deadline travels in the Reactor context, where the upstream
+ * executor reads the remaining budget; a single-value result that is still pending
+ * when it expires is cancelled, cancelling its upstream calls with it, and answered
+ * with a 504 ResponseModel. Streams only carry the deadline to their upstream calls.
+ */
+public class DeadlineReturnValueHandler implements HandlerMethodReturnValueHandler {
+
+    private final HandlerMethodReturnValueHandler delegate;
+    private final DeadlineProperties properties;
+    private final Counter exceeded;
+
+    public DeadlineReturnValueHandler(HandlerMethodReturnValueHandler delegate, DeadlineProperties properties,
+                                      MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.properties = properties;
+        this.exceeded = Counter.builder("bff.request.deadline.exceeded")
+                .description("Requests answered with a 504 because their deadline passed")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean supportsReturnType(MethodParameter returnType) {
+        return delegate.supportsReturnType(returnType);
+    }
+
+    @Override
+    public void handleReturnValue(Object returnValue, MethodParameter returnType,
+                                  ModelAndViewContainer mavContainer, NativeWebRequest webRequest) throws Exception {
+        if (returnValue instanceof Mono<?> || returnValue instanceof Flux<?>) {
+            Deadline deadline = Deadline.after(resolveTimeout(webRequest.getNativeRequest(HttpServletRequest.class)));
+            if (returnValue instanceof Mono<?> mono) {
+                returnValue = withDeadline(mono, deadline, returnType);
+            } else {
+                returnValue = ((Flux<?>) returnValue).contextWrite(context -> context.put(Deadline.class, deadline));
+            }
+        }
+        delegate.handleReturnValue(returnValue, returnType, mavContainer, webRequest);
+    }
+
+    private Mono<Object> withDeadline(Mono<?> mono, Deadline deadline, MethodParameter returnType) {
+        Class<?> valueType = ResolvableType.forMethodParameter(returnType).getGeneric(0).resolve(Object.class);
+
+        return mono.cast(Object.class)
+                .timeout(deadline.remaining())
+                .onErrorResume(TimeoutException.class, e -> {
+                    exceeded.increment();
+                    ResponseModel timeoutResponse = timeoutResponse();
+                    if (valueType.isAssignableFrom(ResponseModel.class)) {
+                        return Mono.just(timeoutResponse);
+                    } else if (ResponseEntity.class.isAssignableFrom(valueType)) {
+                        return Mono.just(ResponseEntity.ok(timeoutResponse));
+                    }
+                    return Mono.error(e);
+                })
+                .contextWrite(context -> context.put(Deadline.class, deadline));
+    }
+
+    private Duration resolveTimeout(HttpServletRequest request) {
+        String requested = request != null ? request.getHeader(properties.getHeader()) : null;
+        if (requested == null || requested.isBlank()) {
+            return properties.getDefaultTimeout();
+        }
+        try {
+            Duration timeout = Duration.ofMillis(Long.parseLong(requested.trim()));
+            if (timeout.compareTo(properties.getMinTimeout()) < 0) {
+                return properties.getMinTimeout();
+            }
+            return timeout.compareTo(properties.getMaxTimeout()) > 0 ? properties.getMaxTimeout() : timeout;
+        } catch (NumberFormatException e) {
+            return properties.getDefaultTimeout();
+        }
+    }
+
+    private ResponseModel timeoutResponse() {
+        ResponseModel responseModel = new ResponseModel();
+        responseModel.setStatus(504);
+        responseModel.setMessage("Request deadline exceeded");
+        responseModel.setError("The request did not complete within its deadline");
+        return responseModel;
+    }
+}
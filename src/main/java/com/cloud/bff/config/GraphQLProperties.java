@@ -0,0 +1,171 @@
+package com.cloud.bff.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the GraphQL endpoints. Persisted queries are kept by their SHA-256 hash
+ * and analysed operations by their query text, each up to its {@code maximumSize}.
+ * A batched request runs at most {@code concurrency} of its operations at a time and
+ * may carry up to {@code maxOperations}. Each operation is scored once, when analysed:
+ * every list root field adds {@code listCost}, every by-id field {@code lookupCost} and
+ * every mutation field {@code mutationCost}, and operations over {@code maxCost} or
+ * nested deeper than {@code maxDepth} are rejected. Cost is counted per client, as
+ * named by {@code clientHeader}, for up to {@code maxClients} distinct clients.
+ */
+@ConfigurationProperties(prefix = "bff.graphql")
+public class GraphQLProperties {
+
+    private final PersistedQueries persistedQueries = new PersistedQueries();
+    private final OperationCache operationCache = new OperationCache();
+    private final Batch batch = new Batch();
+    private final Cost cost = new Cost();
+
+    public PersistedQueries getPersistedQueries() {
+        return persistedQueries;
+    }
+
+    public OperationCache getOperationCache() {
+        return operationCache;
+    }
+
+    public Batch getBatch() {
+        return batch;
+    }
+
+    public Cost getCost() {
+        return cost;
+    }
+
+    public static class PersistedQueries {
+
+        private boolean enabled = true;
+        private long maximumSize = 1000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+    }
+
+    public static class OperationCache {
+
+        private long maximumSize = 1000;
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+    }
+
+    public static class Batch {
+
+        private int maxOperations = 10;
+        private int concurrency = 4;
+
+        public int getMaxOperations() {
+            return maxOperations;
+        }
+
+        public void setMaxOperations(int maxOperations) {
+            this.maxOperations = maxOperations;
+        }
+
+        public int getConcurrency() {
+            return concurrency;
+        }
+
+        public void setConcurrency(int concurrency) {
+            this.concurrency = concurrency;
+        }
+    }
+
+    public static class Cost {
+
+        private int maxCost = 50;
+        private int maxDepth = 5;
+        private int maxSelections = 1000;
+        private int listCost = 10;
+        private int lookupCost = 1;
+        private int mutationCost = 5;
+        private String clientHeader = "X-Client-Id";
+        private int maxClients = 100;
+
+        public int getMaxCost() {
+            return maxCost;
+        }
+
+        public void setMaxCost(int maxCost) {
+            this.maxCost = maxCost;
+        }
+
+        public int getMaxDepth() {
+            return maxDepth;
+        }
+
+        public void setMaxDepth(int maxDepth) {
+            this.maxDepth = maxDepth;
+        }
+
+        public int getMaxSelections() {
+            return maxSelections;
+        }
+
+        public void setMaxSelections(int maxSelections) {
+            this.maxSelections = maxSelections;
+        }
+
+        public int getListCost() {
+            return listCost;
+        }
+
+        public void setListCost(int listCost) {
+            this.listCost = listCost;
+        }
+
+        public int getLookupCost() {
+            return lookupCost;
+        }
+
+        public void setLookupCost(int lookupCost) {
+            this.lookupCost = lookupCost;
+        }
+
+        public int getMutationCost() {
+            return mutationCost;
+        }
+
+        public void setMutationCost(int mutationCost) {
+            this.mutationCost = mutationCost;
+        }
+
+        public String getClientHeader() {
+            return clientHeader;
+        }
+
+        public void setClientHeader(String clientHeader) {
+            this.clientHeader = clientHeader;
+        }
+
+        public int getMaxClients() {
+            return maxClients;
+        }
+
+        public void setMaxClients(int maxClients) {
+            this.maxClients = maxClients;
+        }
+    }
+}
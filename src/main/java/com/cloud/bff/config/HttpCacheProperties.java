@@ -0,0 +1,32 @@
+package com.cloud.bff.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * How long browsers may reuse a GET response before revalidating it with its ETag.
+ * A zero max age sends {@code no-cache}, so every reuse is revalidated.
+ */
+@ConfigurationProperties(prefix = "bff.http-cache")
+public class HttpCacheProperties {
+
+    private Duration rolesMaxAge = Duration.ofSeconds(60);
+    private Duration usersMaxAge = Duration.ZERO;
+
+    public Duration getRolesMaxAge() {
+        return rolesMaxAge;
+    }
+
+    public void setRolesMaxAge(Duration rolesMaxAge) {
+        this.rolesMaxAge = rolesMaxAge;
+    }
+
+    public Duration getUsersMaxAge() {
+        return usersMaxAge;
+    }
+
+    public void setUsersMaxAge(Duration usersMaxAge) {
+        this.usersMaxAge = usersMaxAge;
+    }
+}
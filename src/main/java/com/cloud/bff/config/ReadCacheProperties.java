@@ -0,0 +1,124 @@
+package com.cloud.bff.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Sizing and expiry of the in-process caches placed in front of upstream reads.
+ * Entries are fresh for {@code ttl}; for {@code staleWhileRevalidate} after that they
+ * are still served while one background refresh runs, and for {@code staleIfError}
+ * they are kept as the fallback when the upstream fails.
+ */
+@ConfigurationProperties(prefix = "bff.cache")
+public class ReadCacheProperties {
+
+    private final Roles roles = new Roles();
+    private final Users users = new Users();
+
+    public Roles getRoles() {
+        return roles;
+    }
+
+    public Users getUsers() {
+        return users;
+    }
+
+    public static class Roles {
+
+        private boolean enabled = true;
+        private Duration ttl = Duration.ofMinutes(5);
+        private long maximumSize = 1000;
+        private Duration staleWhileRevalidate = Duration.ofMinutes(1);
+        private Duration staleIfError = Duration.ofHours(1);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public Duration getStaleWhileRevalidate() {
+            return staleWhileRevalidate;
+        }
+
+        public void setStaleWhileRevalidate(Duration staleWhileRevalidate) {
+            this.staleWhileRevalidate = staleWhileRevalidate;
+        }
+
+        public Duration getStaleIfError() {
+            return staleIfError;
+        }
+
+        public void setStaleIfError(Duration staleIfError) {
+            this.staleIfError = staleIfError;
+        }
+    }
+
+    public static class Users {
+
+        private boolean enabled = true;
+        private Duration ttl = Duration.ofMinutes(2);
+        private long maximumSize = 10000;
+        private Duration staleWhileRevalidate = Duration.ofSeconds(30);
+        private Duration staleIfError = Duration.ofMinutes(10);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public Duration getStaleWhileRevalidate() {
+            return staleWhileRevalidate;
+        }
+
+        public void setStaleWhileRevalidate(Duration staleWhileRevalidate) {
+            this.staleWhileRevalidate = staleWhileRevalidate;
+        }
+
+        public Duration getStaleIfError() {
+            return staleIfError;
+        }
+
+        public void setStaleIfError(Duration staleIfError) {
+            this.staleIfError = staleIfError;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.cloud.bff.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitterReturnValueHandler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@EnableConfigurationProperties(DeadlineProperties.class)
+public class RequestDeadlineConfig {
+
+    // Wraps the handler that subscribes to Mono/Flux results, keeping its place in the chain
+    @Bean
+    public SmartInitializingSingleton deadlineReturnValueHandlerRegistrar(RequestMappingHandlerAdapter handlerAdapter,
+                                                                          DeadlineProperties properties,
+                                                                          MeterRegistry meterRegistry) {
+        return () -> {
+            List<HandlerMethodReturnValueHandler> handlers = new ArrayList<>(handlerAdapter.getReturnValueHandlers());
+            handlers.replaceAll(handler -> handler instanceof ResponseBodyEmitterReturnValueHandler
+                    ? new DeadlineReturnValueHandler(handler, properties, meterRegistry)
+                    : handler);
+            handlerAdapter.setReturnValueHandlers(handlers);
+        };
+    }
+}
@@ -0,0 +1,57 @@
+package com.cloud.bff.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * One pooled WebClient shared by every service that talks to the Azure Functions host.
+ * With metrics enabled, reactor-netty publishes the pool gauges
+ * (reactor.netty.connection.provider.active/idle/pending.connections and
+ * pending.connections.time for acquire latency) to the Micrometer registry.
+ */
+@Configuration
+@EnableConfigurationProperties(UpstreamProperties.class)
+public class UpstreamClientConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider upstreamConnectionProvider(UpstreamProperties properties) {
+        UpstreamProperties.Pool pool = properties.getPool();
+        return ConnectionProvider.builder("azure-upstream")
+                .maxConnections(pool.getMaxConnections())
+                .pendingAcquireMaxCount(pool.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(pool.getPendingAcquireTimeout())
+                .maxIdleTime(pool.getMaxIdleTime())
+                .maxLifeTime(pool.getMaxLifeTime())
+                .evictInBackground(pool.getEvictInBackground())
+                .metrics(true)
+                .build();
+    }
+
+    @Bean
+    public WebClient upstreamWebClient(WebClient.Builder webClientBuilder, ConnectionProvider upstreamConnectionProvider,
+                                       UpstreamProperties properties) {
+        // Offer h2 over ALPN and fall back to HTTP/1.1 when the host does not negotiate it
+        HttpProtocol[] protocols = properties.isHttp2()
+                ? new HttpProtocol[] {HttpProtocol.H2, HttpProtocol.HTTP11}
+                : new HttpProtocol[] {HttpProtocol.HTTP11};
+
+        HttpClient httpClient = HttpClient.create(upstreamConnectionProvider)
+                .protocol(protocols)
+                .keepAlive(true)
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis());
+
+        return webClientBuilder
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .baseUrl(properties.getBaseUrl())
+                .defaultHeader("x-functions-key", properties.getFunctionsKey())
+                .build();
+    }
+}
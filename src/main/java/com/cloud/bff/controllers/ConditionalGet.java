@@ -0,0 +1,80 @@
+package com.cloud.bff.controllers;
+
+import com.cloud.bff.config.HttpCacheProperties;
+import com.cloud.bff.models.ResponseModel;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Adds a strong ETag and Cache-Control to successful GET responses. Spring MVC compares
+ * the ETag with {@code If-None-Match} when it writes the ResponseEntity and answers 304
+ * without a body when they match. Reads served from the caches share the same data
+ * instance, so tags are remembered per instance and the data is only serialized and
+ * hashed once for as long as the cache holds it.
+ */
+@Component
+@EnableConfigurationProperties(HttpCacheProperties.class)
+public class ConditionalGet {
+
+    private final ObjectMapper objectMapper;
+    private final HttpCacheProperties properties;
+    // Weak keys compare by identity, which is exactly "same cached instance"
+    private final Cache<Object, String> tags = Caffeine.newBuilder()
+            .weakKeys()
+            .maximumSize(10_000)
+            .build();
+
+    public ConditionalGet(ObjectMapper objectMapper, HttpCacheProperties properties) {
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+    }
+
+    public Mono<ResponseEntity<ResponseModel>> roles(Mono<ResponseModel> response) {
+        return response.map(responseModel -> respond(responseModel, properties.getRolesMaxAge()));
+    }
+
+    public Mono<ResponseEntity<ResponseModel>> users(Mono<ResponseModel> response) {
+        return response.map(responseModel -> respond(responseModel, properties.getUsersMaxAge()));
+    }
+
+    public static Mono<ResponseEntity<ResponseModel>> plain(Mono<ResponseModel> response) {
+        return response.map(ResponseEntity::ok);
+    }
+
+    private ResponseEntity<ResponseModel> respond(ResponseModel responseModel, Duration maxAge) {
+        if (responseModel.getStatus() != 200 || responseModel.getData() == null) {
+            return ResponseEntity.ok(responseModel);
+        }
+
+        boolean stale = Boolean.TRUE.equals(responseModel.getStale());
+        String tag = tags.get(responseModel.getData(), this::hash);
+        if (tag == null) {
+            return ResponseEntity.ok(responseModel);
+        }
+        // Stale bodies differ from fresh ones and should be replaced as soon as the cache refreshes
+        return ResponseEntity.ok()
+                .eTag(stale ? tag + "-stale" : tag)
+                .cacheControl(stale || maxAge.isZero() ? CacheControl.noCache().cachePrivate()
+                        : CacheControl.maxAge(maxAge).cachePrivate())
+                .body(responseModel);
+    }
+
+    private String hash(Object data) {
+        try {
+            return DigestUtils.md5DigestAsHex(objectMapper.writeValueAsBytes(data));
+        } catch (JsonProcessingException e) {
+            // The response goes out untagged; the same failure will surface when it is written
+            return null;
+        }
+    }
+}
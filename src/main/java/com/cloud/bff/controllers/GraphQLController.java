@@ -1,215 +1,276 @@
 package com.cloud.bff.controllers;
 
+import com.cloud.bff.config.GraphQLProperties;
+import com.cloud.bff.graphql.CostAnalyzer;
+import com.cloud.bff.graphql.Document;
+import com.cloud.bff.graphql.ExecutionInput;
+import com.cloud.bff.graphql.GraphQLParser;
+import com.cloud.bff.graphql.GraphQLSyntaxException;
+import com.cloud.bff.graphql.OperationCache;
+import com.cloud.bff.graphql.OperationDefinition;
+import com.cloud.bff.graphql.OperationExecutor;
+import com.cloud.bff.graphql.OperationPlan;
+import com.cloud.bff.graphql.PersistedQueryStore;
 import com.cloud.bff.models.ResponseModel;
-import com.cloud.bff.models.RoleModel;
-import com.cloud.bff.models.UserModel;
-import com.cloud.bff.services.RoleService;
-import com.cloud.bff.services.UserService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.bind.annotation.*;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.JsonNode;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.function.Function;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 @RestController
 @RequestMapping("/api/graphql")
 public class GraphQLController {
 
-    private final RoleService roleService;
-    private final UserService userService;
+    private static final String ENDPOINT = "/api/graphql";
+
     private final ObjectMapper objectMapper;
+    private final PersistedQueryStore persistedQueryStore;
+    private final OperationCache operationCache;
+    private final OperationExecutor operationExecutor;
+    private final CostAnalyzer costAnalyzer;
+    private final GraphQLProperties properties;
     private final Logger logger = LoggerFactory.getLogger(GraphQLController.class);
 
-    public GraphQLController(final RoleService roleService, final UserService userService, ObjectMapper objectMapper) {
-        this.roleService = roleService;
-        this.userService = userService;
+    public GraphQLController(ObjectMapper objectMapper, PersistedQueryStore persistedQueryStore,
+                             OperationCache operationCache, OperationExecutor operationExecutor,
+                             CostAnalyzer costAnalyzer, GraphQLProperties properties) {
         this.objectMapper = objectMapper;
+        this.persistedQueryStore = persistedQueryStore;
+        this.operationCache = operationCache;
+        this.operationExecutor = operationExecutor;
+        this.costAnalyzer = costAnalyzer;
+        this.properties = properties;
     }
 
     @PostMapping
-    public ResponseModel handleGraphQL(@RequestBody String requestBody) {
+    public Mono<Object> handleGraphQL(@RequestBody String requestBody, @RequestHeader HttpHeaders headers) {
+        logger.info("Received GraphQL request: {}", requestBody);
+
+        String clientId = headers.getFirst(properties.getCost().getClientHeader());
+        JsonNode rootNode = readJson(requestBody);
+        if (rootNode != null && rootNode.isArray()) {
+            return handleBatch(rootNode, clientId).cast(Object.class);
+        }
+        return plan(requestBody, rootNode).execute(executionInput(rootNode, clientId)).cast(Object.class);
+    }
+
+    // A JSON array of operations: each runs as if it had its own request, and the results keep the array's order.
+    // The whole batch shares one cost budget, checked before any of its operations runs
+    private Mono<?> handleBatch(JsonNode operations, String clientId) {
+        GraphQLProperties.Batch batch = properties.getBatch();
+        if (operations.isEmpty() || operations.size() > batch.getMaxOperations()) {
+            logger.warn("Rejected GraphQL batch of {} operations", operations.size());
+            ResponseModel errorResponse = new ResponseModel();
+            errorResponse.setStatus(400);
+            errorResponse.setMessage("Invalid GraphQL batch");
+            errorResponse.setError("A batch must contain between 1 and " + batch.getMaxOperations() + " operations");
+            return Mono.just(errorResponse);
+        }
+
+        List<OperationPlan> plans = new ArrayList<>();
+        List<ExecutionInput> inputs = new ArrayList<>();
+        int totalCost = 0;
+        for (JsonNode operation : operations) {
+            OperationPlan plan = plan(operation.toString(), operation);
+            ExecutionInput input = executionInput(operation, clientId);
+            plans.add(plan);
+            inputs.add(input);
+            totalCost += plan.cost(input.operationName());
+        }
+        ResponseModel rejected = costAnalyzer.admitBatch(totalCost, clientId);
+        if (rejected != null) {
+            logger.warn("Rejected GraphQL batch: {}", rejected.getError());
+            return Mono.just(rejected);
+        }
+
+        logger.info("Processing GraphQL batch of {} operations", operations.size());
+        return Flux.range(0, plans.size())
+                .flatMapSequential(i -> plans.get(i).execute(inputs.get(i)), batch.getConcurrency())
+                .collectList();
+    }
+
+    // The plan answering this request; persisted-query and processing errors are answered by plans of their own
+    private OperationPlan plan(String requestBody, JsonNode rootNode) {
         try {
-            logger.info("Received GraphQL request: {}", requestBody);
-            
-            // Try to parse as JSON first (standard GraphQL format)
-            String graphqlQuery = "";
-            try {
-                JsonNode rootNode = objectMapper.readTree(requestBody);
-                if (rootNode.has("query")) {
-                    String queryValue = rootNode.get("query").asText();
-                    try {
-                        // Check if the query value is itself JSON
-                        JsonNode queryNode = objectMapper.readTree(queryValue);
-                        if (queryNode.has("query")) {
-                            // We have a nested query object
-                            graphqlQuery = queryNode.get("query").asText();
-                        } else {
-                            // Not a nested object, use the query value directly
-                            graphqlQuery = queryValue;
-                        }
-                    } catch (Exception e) {
-                        // The query value is not valid JSON, use it as-is
-                        graphqlQuery = queryValue;
-                    }
-                    logger.info("Parsed GraphQL query from JSON: {}", graphqlQuery);
-                } else {
-                    // If not in standard format, use the raw body
-                    graphqlQuery = requestBody;
-                }
-            } catch (Exception e) {
-                // Not valid JSON, assume it's a raw GraphQL query
-                graphqlQuery = requestBody;
-                logger.info("Using raw GraphQL query: {}", graphqlQuery);
-            }
-            
-            // Remove any enclosing quotes and escape sequences that might be present
-            graphqlQuery = graphqlQuery.trim();
-            if (graphqlQuery.startsWith("\"") && graphqlQuery.endsWith("\"")) {
-                graphqlQuery = graphqlQuery.substring(1, graphqlQuery.length() - 1);
-            }
-            graphqlQuery = graphqlQuery.replace("\\n", "\n").replace("\\\"", "\"").replace("\\\\", "\\");
-            
-            // After cleaning the graphqlQuery string
-            graphqlQuery = graphqlQuery.trim();
-            if (!graphqlQuery.toLowerCase().startsWith("query") && !graphqlQuery.toLowerCase().startsWith("mutation")) {
-                graphqlQuery = "query " + graphqlQuery;
-            }
-            logger.info("Final GraphQL query after processing: {}", graphqlQuery);
-            
-            // Handle ROLE operations
-            if (graphqlQuery.contains("getAllRoles") || graphqlQuery.contains("roles")) {
-                logger.info("Processing 'getAllRoles/roles' query");
-                return roleService.getRoles();
-            } else if (graphqlQuery.contains("getRoleById")) {
-                logger.info("Processing 'getRoleById' query");
-                try {
-                    Long id = extractIdFromGetByIdQuery(graphqlQuery, "getRoleById");
-                    logger.info("Extracted ID: {}", id);
-                    return roleService.getRoleById(id);
-                } catch (Exception e) {
-                    logger.error("Error extracting ID from query: {}", e.getMessage());
-                    ResponseModel errorResponse = new ResponseModel();
-                    errorResponse.setStatus(400);
-                    errorResponse.setMessage("Invalid ID in GraphQL query");
-                    errorResponse.setError("Could not parse ID: " + e.getMessage());
-                    return errorResponse;
-                }
-            } else if (graphqlQuery.contains("role(id:")) {
-                logger.info("Processing 'role by id' query");
-                try {
-                    Long id = extractIdFromQuery(graphqlQuery, "role");
-                    logger.info("Extracted ID: {}", id);
-                    return roleService.getRoleById(id);
-                } catch (Exception e) {
-                    logger.error("Error extracting ID from query: {}", e.getMessage());
-                    ResponseModel errorResponse = new ResponseModel();
-                    errorResponse.setStatus(400);
-                    errorResponse.setMessage("Invalid ID in GraphQL query");
-                    errorResponse.setError("Could not parse ID: " + e.getMessage());
-                    return errorResponse;
-                }
-            } else if (graphqlQuery.contains("createRole")) {
-                logger.info("Processing 'createRole' mutation");
-                RoleModel role = extractRoleFromMutation(graphqlQuery, "createRole");
-                logger.info("Extracted role: title={}, description={}", role.getTitle(), role.getDescription());
-                return roleService.createRole(role);
-            } else if (graphqlQuery.contains("updateRole")) {
-                logger.info("Processing 'updateRole' mutation");
-                RoleModel role = extractRoleFromMutation(graphqlQuery, "updateRole");
-                logger.info("Extracted role: id={}, title={}, description={}", role.getId(), role.getTitle(), role.getDescription());
-                return roleService.updateRole(role);
-            } else if (graphqlQuery.contains("deleteRole")) {
-                logger.info("Processing 'deleteRole' mutation");
-                try {
-                    Long id = extractIdFromDeleteMutation(graphqlQuery, "deleteRole");
-                    logger.info("Extracted ID for deletion: {}", id);
-                    return roleService.deleteRole(id);
-                } catch (Exception e) {
-                    logger.error("Error extracting ID for deletion: {}", e.getMessage());
-                    ResponseModel errorResponse = new ResponseModel();
-                    errorResponse.setStatus(400);
-                    errorResponse.setMessage("Invalid ID in delete mutation");
-                    errorResponse.setError("Could not parse ID: " + e.getMessage());
-                    return errorResponse;
+            String persistedHash = rootNode != null
+                    ? rootNode.at("/extensions/persistedQuery/sha256Hash").asText(null)
+                    : null;
+
+            String query = rootNode != null && rootNode.hasNonNull("query") ? rootNode.get("query").asText() : requestBody;
+            Function<String, OperationPlan> analyse = cacheKey -> analyse(processQuery(requestBody, rootNode));
+
+            OperationPlan plan;
+            if (persistedHash == null) {
+                plan = operationCache.get(ENDPOINT, query, analyse);
+            } else if (!persistedQueryStore.isEnabled()) {
+                if (!rootNode.hasNonNull("query")) {
+                    return answer(persistedQueryError("PersistedQueryNotSupported",
+                            "Persisted queries are disabled; send the full query"));
                 }
-            }
-            
-            // Handle USER operations
-            else if (graphqlQuery.contains("getAllUsers") || graphqlQuery.contains("users")) {
-                logger.info("Processing 'getAllUsers/users' query");
-                return userService.getUsers();
-            } else if (graphqlQuery.contains("getUserById")) {
-                logger.info("Processing 'getUserById' query");
-                try {
-                    Long id = extractIdFromGetByIdQuery(graphqlQuery, "getUserById");
-                    logger.info("Extracted ID: {}", id);
-                    return userService.getUserById(id);
-                } catch (Exception e) {
-                    logger.error("Error extracting ID from query: {}", e.getMessage());
-                    ResponseModel errorResponse = new ResponseModel();
-                    errorResponse.setStatus(400);
-                    errorResponse.setMessage("Invalid ID in GraphQL query");
-                    errorResponse.setError("Could not parse ID: " + e.getMessage());
-                    return errorResponse;
+                plan = operationCache.get(ENDPOINT, query, analyse);
+            } else if (!rootNode.hasNonNull("query")) {
+                // Hash only: the analysed plan is taken from the store as it is
+                plan = persistedQueryStore.get(persistedHash);
+                if (plan == null) {
+                    logger.info("Persisted query {} not found", persistedHash);
+                    return answer(persistedQueryError("PersistedQueryNotFound",
+                            "Unknown persisted query hash; send it again with the query"));
                 }
-            } else if (graphqlQuery.contains("user(id:")) {
-                logger.info("Processing 'user by id' query");
-                try {
-                    Long id = extractIdFromQuery(graphqlQuery, "user");
-                    logger.info("Extracted ID: {}", id);
-                    return userService.getUserById(id);
-                } catch (Exception e) {
-                    logger.error("Error extracting ID from query: {}", e.getMessage());
-                    ResponseModel errorResponse = new ResponseModel();
-                    errorResponse.setStatus(400);
-                    errorResponse.setMessage("Invalid ID in GraphQL query");
-                    errorResponse.setError("Could not parse ID: " + e.getMessage());
-                    return errorResponse;
+                logger.info("Using persisted query {}", persistedHash);
+            } else {
+                plan = operationCache.get(ENDPOINT, query, analyse);
+                if (!plan.isCacheable()) {
+                    // Never kept, so a later hash-only request is asked for the query again
+                    return plan;
                 }
-            } else if (graphqlQuery.contains("createUser")) {
-                logger.info("Processing 'createUser' mutation");
-                UserModel user = extractUserFromMutation(graphqlQuery, "createUser");
-                logger.info("Extracted user: email={}, rol={}", user.getEmail(), user.getRol());
-                return userService.addUser(user);
-            } else if (graphqlQuery.contains("updateUser")) {
-                logger.info("Processing 'updateUser' mutation");
-                UserModel user = extractUserFromMutation(graphqlQuery, "updateUser");
-                logger.info("Extracted user: id={}, email={}, rol={}", user.getId(), user.getEmail(), user.getRol());
-                return userService.updateUser(user);
-            } else if (graphqlQuery.contains("deleteUser")) {
-                logger.info("Processing 'deleteUser' mutation");
-                try {
-                    Long id = extractIdFromDeleteMutation(graphqlQuery, "deleteUser");
-                    logger.info("Extracted ID for deletion: {}", id);
-                    return userService.deleteUser(id);
-                } catch (Exception e) {
-                    logger.error("Error extracting ID for deletion: {}", e.getMessage());
-                    ResponseModel errorResponse = new ResponseModel();
-                    errorResponse.setStatus(400);
-                    errorResponse.setMessage("Invalid ID in delete mutation");
-                    errorResponse.setError("Could not parse ID: " + e.getMessage());
-                    return errorResponse;
+                if (!persistedQueryStore.register(persistedHash, query, plan)) {
+                    return answer(persistedQueryError("Invalid persisted query",
+                            "provided sha does not match query"));
                 }
-            } else {
-                logger.warn("Invalid GraphQL operation: {}", graphqlQuery);
-                ResponseModel errorResponse = new ResponseModel();
-                errorResponse.setStatus(400);
-                errorResponse.setMessage("Invalid GraphQL operation");
-                errorResponse.setError("Unsupported operation in GraphQL query");
-                return errorResponse;
+                logger.info("Registered persisted query {}", persistedHash);
             }
+
+            return plan;
         } catch (Exception e) {
             logger.error("Error processing GraphQL request: {}", e.getMessage(), e);
             ResponseModel errorResponse = new ResponseModel();
             errorResponse.setStatus(500);
             errorResponse.setMessage("Error processing GraphQL request");
             errorResponse.setError(e.getMessage());
-            return errorResponse;
+            return answer(errorResponse);
         }
     }
 
+    private OperationPlan answer(ResponseModel response) {
+        return input -> Mono.just(response);
+    }
+
+    // Parses and scores the processed query once; every later request with the same text reuses both,
+    // except for mutations writing literal values, which are analysed again each time
+    private OperationPlan analyse(String graphqlQuery) {
+        try {
+            Document document = GraphQLParser.parse(graphqlQuery, costAnalyzer.maxNesting(),
+                    costAnalyzer.maxSelections());
+            Map<OperationDefinition, CostAnalyzer.OperationCost> costs = new HashMap<>();
+            document.getOperations().forEach(operation -> costs.put(operation, costAnalyzer.score(operation)));
+            OperationPlan plan = new OperationPlan() {
+                @Override
+                public Mono<ResponseModel> execute(ExecutionInput input) {
+                    OperationDefinition operation = document.getOperation(input.operationName());
+                    ResponseModel rejected = operation != null
+                            ? costAnalyzer.admit(costs.get(operation), input.clientId())
+                            : null;
+                    if (rejected != null) {
+                        logger.warn("Rejected GraphQL operation: {}", rejected.getError());
+                        return Mono.just(rejected);
+                    }
+                    return operationExecutor.execute(document, input);
+                }
+
+                @Override
+                public int cost(String operationName) {
+                    OperationDefinition operation = document.getOperation(operationName);
+                    return operation != null ? costs.get(operation).cost() : 0;
+                }
+            };
+            // Mutations writing literal values keep them in the parsed document; it must not outlive the request
+            boolean writesInlineValues = document.getOperations().stream()
+                    .anyMatch(operation -> operation.getType() == OperationDefinition.Type.MUTATION
+                            && operation.hasInlineValues());
+            return writesInlineValues ? OperationPlan.uncached(plan) : plan;
+        } catch (GraphQLSyntaxException e) {
+            logger.warn("Invalid GraphQL query: {}", e.getMessage());
+            ResponseModel errorResponse = new ResponseModel();
+            errorResponse.setStatus(400);
+            errorResponse.setMessage("Invalid GraphQL query");
+            errorResponse.setError(e.getMessage());
+            return answer(errorResponse);
+        }
+    }
+
+    private JsonNode readJson(String requestBody) {
+        try {
+            return objectMapper.readTree(requestBody);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private String processQuery(String requestBody, JsonNode rootNode) {
+        // Try to parse as JSON first (standard GraphQL format)
+        String graphqlQuery = "";
+        if (rootNode != null && rootNode.has("query")) {
+            String queryValue = rootNode.get("query").asText();
+            try {
+                // Check if the query value is itself JSON
+                JsonNode queryNode = objectMapper.readTree(queryValue);
+                if (queryNode.has("query")) {
+                    // We have a nested query object
+                    graphqlQuery = queryNode.get("query").asText();
+                } else {
+                    // Not a nested object, use the query value directly
+                    graphqlQuery = queryValue;
+                }
+            } catch (Exception e) {
+                // The query value is not valid JSON, use it as-is
+                graphqlQuery = queryValue;
+            }
+            logger.info("Parsed GraphQL query from JSON: {}", graphqlQuery);
+        } else if (rootNode != null) {
+            // If not in standard format, use the raw body
+            graphqlQuery = requestBody;
+        } else {
+            // Not valid JSON, assume it's a raw GraphQL query
+            graphqlQuery = requestBody;
+            logger.info("Using raw GraphQL query: {}", graphqlQuery);
+        }
+
+        // Remove any enclosing quotes and the escape sequences of a query sent as a JSON string
+        graphqlQuery = graphqlQuery.trim();
+        if (graphqlQuery.startsWith("\"") && graphqlQuery.endsWith("\"")) {
+            graphqlQuery = graphqlQuery.substring(1, graphqlQuery.length() - 1)
+                    .replace("\\n", "\n").replace("\\\"", "\"").replace("\\\\", "\\");
+        }
+
+        // A bare selection such as "roles { id }" is taken as the selection set of a query
+        graphqlQuery = graphqlQuery.trim();
+        if (!graphqlQuery.startsWith("{") && !graphqlQuery.matches("(?s)(query|mutation|subscription|fragment)\\b.*")) {
+            graphqlQuery = "{ " + graphqlQuery + " }";
+        }
+        logger.info("Final GraphQL query after processing: {}", graphqlQuery);
+        return graphqlQuery;
+    }
+
+    private ResponseModel persistedQueryError(String message, String error) {
+        ResponseModel responseModel = new ResponseModel();
+        responseModel.setStatus(400);
+        responseModel.setMessage(message);
+        responseModel.setError(error);
+        return responseModel;
+    }
+
+    // Operation name and variables of this request; variables may also arrive as a JSON string
+    private ExecutionInput executionInput(JsonNode rootNode, String clientId) {
+        if (rootNode == null || !rootNode.isObject()) {
+            return new ExecutionInput(null, null, clientId);
+        }
+        String operationName = rootNode.hasNonNull("operationName") ? rootNode.get("operationName").asText() : null;
+        JsonNode variables = rootNode.get("variables");
+        if (variables != null && variables.isTextual()) {
+            variables = readJson(variables.asText());
+        }
+        return new ExecutionInput(operationName, variables, clientId);
+    }
+
     @PostMapping("/debug")
     public ResponseModel debugGraphQL(@RequestBody String graphqlQuery) {
         ResponseModel response = new ResponseModel();
@@ -325,154 +386,4 @@ public class GraphQLController {
             throw new IllegalArgumentException("Error parsing ID from query: " + e.getMessage() + ", Query: " + query);
         }
     }
-
-    private Long extractIdFromGetByIdQuery(String query, String methodName) {
-        try {
-            // Pattern for getRoleById(id: 1) or getUserById(id: 1) syntax
-            String idPattern = methodName + "\\(id:\\s*([0-9]+)\\s*\\)";
-            java.util.regex.Pattern pattern = java.util.regex.Pattern.compile(idPattern);
-            java.util.regex.Matcher matcher = pattern.matcher(query);
-            
-            if (matcher.find()) {
-                String idStr = matcher.group(1).trim();
-                return Long.parseLong(idStr);
-            }
-            
-            // Fallback: look for any id field with a number
-            idPattern = "id:\\s*([0-9]+)";
-            pattern = java.util.regex.Pattern.compile(idPattern);
-            matcher = pattern.matcher(query);
-            
-            if (matcher.find()) {
-                String idStr = matcher.group(1).trim();
-                return Long.parseLong(idStr);
-            }
-            
-            throw new IllegalArgumentException("Could not extract valid ID from GraphQL query: " + query);
-        } catch (Exception e) {
-            throw new IllegalArgumentException("Error parsing ID from query: " + e.getMessage() + ", Query: " + query);
-        }
-    }
-
-    private Long extractIdFromDeleteMutation(String mutation, String methodName) {
-        try {
-            // Improved regex pattern for delete mutation
-            String idPattern = methodName + "\\(id:\\s*\"?([0-9]+)\"?\\s*\\)";
-            java.util.regex.Pattern pattern = java.util.regex.Pattern.compile(idPattern);
-            java.util.regex.Matcher matcher = pattern.matcher(mutation);
-            
-            if (matcher.find()) {
-                String idStr = matcher.group(1).trim();
-                return Long.parseLong(idStr);
-            }
-            
-            // Fallback to the original method
-            int startIndex = mutation.indexOf(methodName + "(id:");
-            if (startIndex != -1) {
-                startIndex += (methodName + "(id:").length();
-                
-                // Find the closing parenthesis or the next space
-                int endIndex = mutation.indexOf(")", startIndex);
-                int spaceIndex = mutation.indexOf(" ", startIndex);
-                int braceIndex = mutation.indexOf("}", startIndex);
-                
-                // Take the closest ending marker
-                if (spaceIndex != -1 && (endIndex == -1 || spaceIndex < endIndex)) {
-                    endIndex = spaceIndex;
-                }
-                
-                if (braceIndex != -1 && (endIndex == -1 || braceIndex < endIndex)) {
-                    endIndex = braceIndex;
-                }
-                
-                if (endIndex != -1) {
-                    String idStr = mutation.substring(startIndex, endIndex).trim();
-                    // Remove any quotes and other non-numeric characters
-                    idStr = idStr.replaceAll("[^0-9]", "").trim();
-                    
-                    if (!idStr.isEmpty()) {
-                        return Long.parseLong(idStr);
-                    }
-                }
-            }
-            
-            throw new IllegalArgumentException("Could not extract valid ID from delete mutation: " + mutation);
-        } catch (Exception e) {
-            throw new IllegalArgumentException("Error parsing ID from delete mutation: " + e.getMessage() + ", Mutation: " + mutation);
-        }
-    }
-
-    private RoleModel extractRoleFromMutation(String mutation, String operationType) {
-        // Extract information from the mutation string
-        RoleModel role = new RoleModel();
-        
-        if (operationType.equals("updateRole")) {
-            // For update, we need to extract the ID
-            String idPattern = "id:\\s*\"?([0-9]+)\"?";
-            java.util.regex.Pattern pattern = java.util.regex.Pattern.compile(idPattern);
-            java.util.regex.Matcher matcher = pattern.matcher(mutation);
-            if (matcher.find()) {
-                role.setId(Long.parseLong(matcher.group(1)));
-            }
-        }
-        
-        // Extract title
-        String titlePattern = "title:\\s*\"([^\"]*)\"";
-        java.util.regex.Pattern titlePat = java.util.regex.Pattern.compile(titlePattern);
-        java.util.regex.Matcher titleMatcher = titlePat.matcher(mutation);
-        if (titleMatcher.find()) {
-            role.setTitle(titleMatcher.group(1));
-        }
-        
-        // Extract description
-        String descPattern = "description:\\s*\"([^\"]*)\"";
-        java.util.regex.Pattern descPat = java.util.regex.Pattern.compile(descPattern);
-        java.util.regex.Matcher descMatcher = descPat.matcher(mutation);
-        if (descMatcher.find()) {
-            role.setDescription(descMatcher.group(1));
-        }
-        
-        return role;
-    }
-    
-    private UserModel extractUserFromMutation(String mutation, String operationType) {
-        // Extract information from the mutation string
-        UserModel user = new UserModel();
-        
-        if (operationType.equals("updateUser")) {
-            // For update, we need to extract the ID
-            String idPattern = "id:\\s*\"?([0-9]+)\"?";
-            java.util.regex.Pattern pattern = java.util.regex.Pattern.compile(idPattern);
-            java.util.regex.Matcher matcher = pattern.matcher(mutation);
-            if (matcher.find()) {
-                user.setId(Long.parseLong(matcher.group(1)));
-            }
-        }
-        
-        // Extract email
-        String emailPattern = "email:\\s*\"([^\"]*)\"";
-        java.util.regex.Pattern emailPat = java.util.regex.Pattern.compile(emailPattern);
-        java.util.regex.Matcher emailMatcher = emailPat.matcher(mutation);
-        if (emailMatcher.find()) {
-            user.setEmail(emailMatcher.group(1));
-        }
-        
-        // Extract password
-        String passwordPattern = "password:\\s*\"([^\"]*)\"";
-        java.util.regex.Pattern passwordPat = java.util.regex.Pattern.compile(passwordPattern);
-        java.util.regex.Matcher passwordMatcher = passwordPat.matcher(mutation);
-        if (passwordMatcher.find()) {
-            user.setPassword(passwordMatcher.group(1));
-        }
-        
-        // Extract role/rol - try both variants
-        String rolPattern = "rol(?:e)?(?:Id)?:\\s*\"?([^\",})]*)\"?";
-        java.util.regex.Pattern rolPat = java.util.regex.Pattern.compile(rolPattern);
-        java.util.regex.Matcher rolMatcher = rolPat.matcher(mutation);
-        if (rolMatcher.find()) {
-            user.setRol(rolMatcher.group(1));
-        }
-        
-        return user;
-    }
-}
\ No newline at end of file
+}
@@ -3,33 +3,55 @@ package com.cloud.bff.controllers;
 import com.cloud.bff.models.ResponseModel;
 import com.cloud.bff.models.RoleModel;
 import com.cloud.bff.models.UserModel;
-import com.cloud.bff.services.RoleService;
-import com.cloud.bff.services.UserService;
+import com.cloud.bff.services.PageService;
+import com.cloud.bff.services.ReactiveRoleService;
+import com.cloud.bff.services.ReactiveUserService;
+import com.cloud.bff.upstream.DeadlineExceededException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.servlet.http.HttpServletRequest;
 import java.io.IOException;
+import java.util.function.BiFunction;
 
 @RestController
 @RequestMapping("/api/rest")
 public class RestApiController {
 
-    private final RoleService roleService;
-    private final UserService userService;
+    private final ReactiveRoleService roleService;
+    private final ReactiveUserService userService;
+    private final PageService pageService;
     private final ObjectMapper objectMapper;
+    private final ConditionalGet conditionalGet;
     private final Logger logger = LoggerFactory.getLogger(RestApiController.class);
 
-    public RestApiController(RoleService roleService, UserService userService, ObjectMapper objectMapper) {
+    public RestApiController(ReactiveRoleService roleService, ReactiveUserService userService, PageService pageService,
+                             ObjectMapper objectMapper, ConditionalGet conditionalGet) {
         this.roleService = roleService;
         this.userService = userService;
+        this.pageService = pageService;
         this.objectMapper = objectMapper;
+        this.conditionalGet = conditionalGet;
     }
 
     @RequestMapping(method = {RequestMethod.GET, RequestMethod.POST, RequestMethod.PUT, RequestMethod.DELETE})
-    public ResponseModel handleRequest(HttpServletRequest request) {
+    public Mono<ResponseEntity<ResponseModel>> handleRequest(HttpServletRequest request, @RequestBody(required = false) String body) {
+        if ("GET".equals(request.getMethod())) {
+            String resourceType = getResourceType(request.getRequestURI(), request.getParameter("resource"));
+            return "roles".equals(resourceType)
+                    ? conditionalGet.roles(route(request, body))
+                    : conditionalGet.users(route(request, body));
+        }
+        return ConditionalGet.plain(route(request, body));
+    }
+
+    private Mono<ResponseModel> route(HttpServletRequest request, String body) {
         try {
             String method = request.getMethod();
             String path = request.getRequestURI();
@@ -38,14 +60,14 @@ public class RestApiController {
             logger.info("Handling {} request for {} at {}", method, resourceType, path);
             
             if ("roles".equals(resourceType)) {
-                return handleRoleRequest(method, request);
+                return handleRoleRequest(method, request, body);
             } else if ("users".equals(resourceType)) {
-                return handleUserRequest(method, request);
+                return handleUserRequest(method, request, body);
             } else {
                 ResponseModel errorResponse = new ResponseModel();
                 errorResponse.setStatus(400);
                 errorResponse.setMessage("Invalid or missing resource type. Use 'resource=roles' or 'resource=users' parameter.");
-                return errorResponse;
+                return Mono.just(errorResponse);
             }
         } catch (Exception e) {
             logger.error("Error processing request: {}", e.getMessage(), e);
@@ -53,7 +75,59 @@ public class RestApiController {
             errorResponse.setStatus(500);
             errorResponse.setMessage("Internal server error");
             errorResponse.setError(e.getMessage());
-            return errorResponse;
+            return Mono.just(errorResponse);
+        }
+    }
+    
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Object> streamRequest(HttpServletRequest request) {
+        String resourceType = getResourceType(request.getRequestURI(), request.getParameter("resource"));
+        logger.info("Streaming {} as NDJSON", resourceType);
+
+        // One JSON document per line, written as each element is decoded from upstream
+        Flux<?> elements;
+        if ("roles".equals(resourceType)) {
+            elements = roleService.streamRoles();
+        } else if ("users".equals(resourceType)) {
+            elements = userService.streamUsers();
+        } else {
+            ResponseModel errorResponse = new ResponseModel();
+            errorResponse.setStatus(400);
+            errorResponse.setMessage("Invalid or missing resource type. Use 'resource=roles' or 'resource=users' parameter.");
+            return Flux.just(errorResponse);
+        }
+
+        // Headers are already committed once a line is out, so a failure becomes the last line
+        return elements.cast(Object.class)
+                .onErrorResume(e -> {
+                    logger.error("Error streaming {}: {}", resourceType, e.getMessage(), e);
+                    ResponseModel errorResponse = new ResponseModel();
+                    errorResponse.setStatus(e instanceof DeadlineExceededException ? 504 : 500);
+                    errorResponse.setMessage("Error streaming " + resourceType);
+                    errorResponse.setError(e.getMessage());
+                    return Mono.just(errorResponse);
+                });
+    }
+
+    @GetMapping(params = "stream=true", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Object> streamRequestByParam(HttpServletRequest request) {
+        return streamRequest(request);
+    }
+    
+    private boolean isPageRequest(HttpServletRequest request) {
+        return request.getParameter("limit") != null || request.getParameter("cursor") != null;
+    }
+
+    private Mono<ResponseModel> handlePage(HttpServletRequest request, BiFunction<Integer, String, Mono<ResponseModel>> page) {
+        String limitParam = request.getParameter("limit");
+        try {
+            Integer limit = limitParam != null && !limitParam.isEmpty() ? Integer.parseInt(limitParam) : null;
+            return page.apply(limit, request.getParameter("cursor"));
+        } catch (NumberFormatException e) {
+            ResponseModel errorResponse = new ResponseModel();
+            errorResponse.setStatus(400);
+            errorResponse.setMessage("Invalid limit format");
+            return Mono.just(errorResponse);
         }
     }
     
@@ -78,25 +152,25 @@ public class RestApiController {
     }
     
     // Role request handlers
-    private ResponseModel handleRoleRequest(String method, HttpServletRequest request) throws IOException {
+    private Mono<ResponseModel> handleRoleRequest(String method, HttpServletRequest request, String body) throws IOException {
         switch (method) {
             case "GET":
                 return handleRoleGet(request);
             case "POST":
-                return handleRolePost(request);
+                return handleRolePost(body);
             case "PUT":
-                return handleRolePut(request);
+                return handleRolePut(body);
             case "DELETE":
-                return handleRoleDelete(request);
+                return handleRoleDelete(request, body);
             default:
                 ResponseModel errorResponse = new ResponseModel();
                 errorResponse.setStatus(405);
                 errorResponse.setMessage("Method not allowed");
-                return errorResponse;
+                return Mono.just(errorResponse);
         }
     }
     
-    private ResponseModel handleRoleGet(HttpServletRequest request) {
+    private Mono<ResponseModel> handleRoleGet(HttpServletRequest request) {
         String idParam = request.getParameter("id");
         if (idParam != null && !idParam.isEmpty()) {
             try {
@@ -106,36 +180,38 @@ public class RestApiController {
                 ResponseModel errorResponse = new ResponseModel();
                 errorResponse.setStatus(400);
                 errorResponse.setMessage("Invalid role ID format");
-                return errorResponse;
+                return Mono.just(errorResponse);
             }
+        } else if (isPageRequest(request)) {
+            return handlePage(request, pageService::getRolesPage);
         } else {
             return roleService.getRoles();
         }
     }
     
-    private ResponseModel handleRolePost(HttpServletRequest request) throws IOException {
-        RoleModel role = objectMapper.readValue(request.getInputStream(), RoleModel.class);
+    private Mono<ResponseModel> handleRolePost(String body) throws IOException {
+        RoleModel role = objectMapper.readValue(body, RoleModel.class);
         if (role.getTitle() == null || role.getTitle().isEmpty()) {
             ResponseModel errorResponse = new ResponseModel();
             errorResponse.setStatus(400);
             errorResponse.setMessage("Title is required");
-            return errorResponse;
+            return Mono.just(errorResponse);
         }
         return roleService.createRole(role);
     }
     
-    private ResponseModel handleRolePut(HttpServletRequest request) throws IOException {
-        RoleModel role = objectMapper.readValue(request.getInputStream(), RoleModel.class);
+    private Mono<ResponseModel> handleRolePut(String body) throws IOException {
+        RoleModel role = objectMapper.readValue(body, RoleModel.class);
         if (role.getId() == null) {
             ResponseModel errorResponse = new ResponseModel();
             errorResponse.setStatus(400);
             errorResponse.setMessage("Role ID is required for update");
-            return errorResponse;
+            return Mono.just(errorResponse);
         }
         return roleService.updateRole(role);
     }
     
-    private ResponseModel handleRoleDelete(HttpServletRequest request) throws IOException {
+    private Mono<ResponseModel> handleRoleDelete(HttpServletRequest request, String body) throws IOException {
         // Check if ID is provided as a query parameter
         String idParam = request.getParameter("id");
         if (idParam != null && !idParam.isEmpty()) {
@@ -146,13 +222,13 @@ public class RestApiController {
                 ResponseModel errorResponse = new ResponseModel();
                 errorResponse.setStatus(400);
                 errorResponse.setMessage("Invalid role ID format");
-                return errorResponse;
+                return Mono.just(errorResponse);
             }
         }
         
         // Check if ID is provided in the request body
         try {
-            RoleModel role = objectMapper.readValue(request.getInputStream(), RoleModel.class);
+            RoleModel role = objectMapper.readValue(body, RoleModel.class);
             if (role.getId() != null) {
                 return roleService.deleteRole(role.getId());
             }
@@ -163,29 +239,29 @@ public class RestApiController {
         ResponseModel errorResponse = new ResponseModel();
         errorResponse.setStatus(400);
         errorResponse.setMessage("Role ID is required for DELETE request");
-        return errorResponse;
+        return Mono.just(errorResponse);
     }
     
     // User request handlers
-    private ResponseModel handleUserRequest(String method, HttpServletRequest request) throws IOException {
+    private Mono<ResponseModel> handleUserRequest(String method, HttpServletRequest request, String body) throws IOException {
         switch (method) {
             case "GET":
                 return handleUserGet(request);
             case "POST":
-                return handleUserPost(request);
+                return handleUserPost(body);
             case "PUT":
-                return handleUserPut(request);
+                return handleUserPut(body);
             case "DELETE":
-                return handleUserDelete(request);
+                return handleUserDelete(request, body);
             default:
                 ResponseModel errorResponse = new ResponseModel();
                 errorResponse.setStatus(405);
                 errorResponse.setMessage("Method not allowed");
-                return errorResponse;
+                return Mono.just(errorResponse);
         }
     }
     
-    private ResponseModel handleUserGet(HttpServletRequest request) {
+    private Mono<ResponseModel> handleUserGet(HttpServletRequest request) {
         String idParam = request.getParameter("id");
         if (idParam != null && !idParam.isEmpty()) {
             try {
@@ -195,36 +271,38 @@ public class RestApiController {
                 ResponseModel errorResponse = new ResponseModel();
                 errorResponse.setStatus(400);
                 errorResponse.setMessage("Invalid user ID format");
-                return errorResponse;
+                return Mono.just(errorResponse);
             }
+        } else if (isPageRequest(request)) {
+            return handlePage(request, pageService::getUsersPage);
         } else {
             return userService.getUsers();
         }
     }
     
-    private ResponseModel handleUserPost(HttpServletRequest request) throws IOException {
-        UserModel user = objectMapper.readValue(request.getInputStream(), UserModel.class);
+    private Mono<ResponseModel> handleUserPost(String body) throws IOException {
+        UserModel user = objectMapper.readValue(body, UserModel.class);
         if (user.getEmail() == null || user.getEmail().isEmpty()) {
             ResponseModel errorResponse = new ResponseModel();
             errorResponse.setStatus(400);
             errorResponse.setMessage("Email is required");
-            return errorResponse;
+            return Mono.just(errorResponse);
         }
         return userService.addUser(user);
     }
     
-    private ResponseModel handleUserPut(HttpServletRequest request) throws IOException {
-        UserModel user = objectMapper.readValue(request.getInputStream(), UserModel.class);
+    private Mono<ResponseModel> handleUserPut(String body) throws IOException {
+        UserModel user = objectMapper.readValue(body, UserModel.class);
         if (user.getId() == null) {
             ResponseModel errorResponse = new ResponseModel();
             errorResponse.setStatus(400);
             errorResponse.setMessage("User ID is required for update");
-            return errorResponse;
+            return Mono.just(errorResponse);
         }
         return userService.updateUser(user);
     }
     
-    private ResponseModel handleUserDelete(HttpServletRequest request) throws IOException {
+    private Mono<ResponseModel> handleUserDelete(HttpServletRequest request, String body) throws IOException {
         // Check if ID is provided as a query parameter
         String idParam = request.getParameter("id");
         if (idParam != null && !idParam.isEmpty()) {
@@ -235,13 +313,13 @@ public class RestApiController {
                 ResponseModel errorResponse = new ResponseModel();
                 errorResponse.setStatus(400);
                 errorResponse.setMessage("Invalid user ID format");
-                return errorResponse;
+                return Mono.just(errorResponse);
             }
         }
         
         // Check if ID is provided in the request body
         try {
-            UserModel user = objectMapper.readValue(request.getInputStream(), UserModel.class);
+            UserModel user = objectMapper.readValue(body, UserModel.class);
             if (user.getId() != null) {
                 return userService.deleteUser(user.getId());
             }
@@ -252,6 +330,6 @@ public class RestApiController {
         ResponseModel errorResponse = new ResponseModel();
         errorResponse.setStatus(400);
         errorResponse.setMessage("User ID is required for DELETE request");
-        return errorResponse;
+        return Mono.just(errorResponse);
     }
 }
\ No newline at end of file
@@ -1,8 +1,11 @@
 package com.cloud.bff.controllers;
 
+import com.cloud.bff.graphql.ExecutionInput;
+import com.cloud.bff.graphql.OperationCache;
+import com.cloud.bff.graphql.OperationPlan;
 import com.cloud.bff.models.ResponseModel;
 import com.cloud.bff.models.RoleModel;
-import com.cloud.bff.services.RoleService;
+import com.cloud.bff.services.ReactiveRoleService;
 import org.springframework.web.bind.annotation.*;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -10,144 +13,155 @@ import java.util.Map;
 import java.util.HashMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
 
 @RestController
 @RequestMapping("/api-deprecated/graphql")
 public class RoleController {
 
-    private final RoleService roleService;
+    private static final String ENDPOINT = "/api-deprecated/graphql";
+
+    private final ReactiveRoleService roleService;
     private final ObjectMapper objectMapper;
+    private final OperationCache operationCache;
     private final Logger logger = LoggerFactory.getLogger(RoleController.class);
 
-    public RoleController(final RoleService roleService, ObjectMapper objectMapper) {
+    public RoleController(final ReactiveRoleService roleService, ObjectMapper objectMapper, OperationCache operationCache) {
         this.roleService = roleService;
         this.objectMapper = objectMapper;
+        this.operationCache = operationCache;
     }
 
     @PostMapping
-    public ResponseModel handleGraphQL(@RequestBody String requestBody) {
+    public Mono<ResponseModel> handleGraphQL(@RequestBody String requestBody) {
         try {
             logger.info("Received GraphQL request: {}", requestBody);
-            
-            // Try to parse as JSON first (standard GraphQL format)
-            String graphqlQuery = "";
-            try {
-                JsonNode rootNode = objectMapper.readTree(requestBody);
-                if (rootNode.has("query")) {
-                    String queryValue = rootNode.get("query").asText();
-                    try {
-                        // Check if the query value is itself JSON
-                        JsonNode queryNode = objectMapper.readTree(queryValue);
-                        if (queryNode.has("query")) {
-                            // We have a nested query object
-                            graphqlQuery = queryNode.get("query").asText();
-                        } else {
-                            // Not a nested object, use the query value directly
-                            graphqlQuery = queryValue;
-                        }
-                    } catch (Exception e) {
-                        // The query value is not valid JSON, use it as-is
+
+            return operationCache.get(ENDPOINT, requestBody, this::analyse).execute(new ExecutionInput(null, null, null));
+        } catch (Exception e) {
+            logger.error("Error processing GraphQL request: {}", e.getMessage(), e);
+            ResponseModel errorResponse = new ResponseModel();
+            errorResponse.setStatus(500);
+            errorResponse.setMessage("Error processing GraphQL request");
+            errorResponse.setError(e.getMessage());
+            return Mono.just(errorResponse);
+        }
+    }
+
+    // Cleans up the request and routes it once for every later request; mutation plans hold the
+    // models they write, passwords included, so they are only used for the request at hand
+    private OperationPlan analyse(String requestBody) {
+        // Try to parse as JSON first (standard GraphQL format)
+        String graphqlQuery = "";
+        try {
+            JsonNode rootNode = objectMapper.readTree(requestBody);
+            if (rootNode.has("query")) {
+                String queryValue = rootNode.get("query").asText();
+                try {
+                    // Check if the query value is itself JSON
+                    JsonNode queryNode = objectMapper.readTree(queryValue);
+                    if (queryNode.has("query")) {
+                        // We have a nested query object
+                        graphqlQuery = queryNode.get("query").asText();
+                    } else {
+                        // Not a nested object, use the query value directly
                         graphqlQuery = queryValue;
                     }
-                    logger.info("Parsed GraphQL query from JSON: {}", graphqlQuery);
-                } else {
-                    // If not in standard format, use the raw body
-                    graphqlQuery = requestBody;
+                } catch (Exception e) {
+                    // The query value is not valid JSON, use it as-is
+                    graphqlQuery = queryValue;
                 }
-            } catch (Exception e) {
-                // Not valid JSON, assume it's a raw GraphQL query
+                logger.info("Parsed GraphQL query from JSON: {}", graphqlQuery);
+            } else {
+                // If not in standard format, use the raw body
                 graphqlQuery = requestBody;
-                logger.info("Using raw GraphQL query: {}", graphqlQuery);
             }
-            
-            // Remove any enclosing quotes and escape sequences that might be present
-            graphqlQuery = graphqlQuery.trim();
-            if (graphqlQuery.startsWith("\"") && graphqlQuery.endsWith("\"")) {
-                graphqlQuery = graphqlQuery.substring(1, graphqlQuery.length() - 1);
+        } catch (Exception e) {
+            // Not valid JSON, assume it's a raw GraphQL query
+            graphqlQuery = requestBody;
+            logger.info("Using raw GraphQL query: {}", graphqlQuery);
+        }
+        
+        // Remove any enclosing quotes and escape sequences that might be present
+        graphqlQuery = graphqlQuery.trim();
+        if (graphqlQuery.startsWith("\"") && graphqlQuery.endsWith("\"")) {
+            graphqlQuery = graphqlQuery.substring(1, graphqlQuery.length() - 1);
+        }
+        graphqlQuery = graphqlQuery.replace("\\n", "\n").replace("\\\"", "\"").replace("\\\\", "\\");
+        
+        // After cleaning the graphqlQuery string
+        graphqlQuery = graphqlQuery.trim();
+        if (!graphqlQuery.toLowerCase().startsWith("query")) {
+            graphqlQuery = "query " + graphqlQuery;
+        }
+        logger.info("Final GraphQL query after processing: {}", graphqlQuery);
+        
+        // Check for different operation types
+        if (graphqlQuery.contains("getAllRoles")) {
+            logger.info("Processing 'getAllRoles' query");
+            return input -> roleService.getRoles();
+        } else if (graphqlQuery.contains("roles")) {
+            logger.info("Processing 'roles' query");
+            return input -> roleService.getRoles();
+        } else if (graphqlQuery.contains("getRoleById")) {
+            logger.info("Processing 'getRoleById' query");
+            try {
+                Long id = extractIdFromGetByIdQuery(graphqlQuery);
+                logger.info("Extracted ID: {}", id);
+                return input -> roleService.getRoleById(id);
+            } catch (Exception e) {
+                logger.error("Error extracting ID from query: {}", e.getMessage());
+                ResponseModel errorResponse = new ResponseModel();
+                errorResponse.setStatus(400);
+                errorResponse.setMessage("Invalid ID in GraphQL query");
+                errorResponse.setError("Could not parse ID: " + e.getMessage());
+                return input -> Mono.just(errorResponse);
             }
-            graphqlQuery = graphqlQuery.replace("\\n", "\n").replace("\\\"", "\"").replace("\\\\", "\\");
-            
-            // After cleaning the graphqlQuery string
-            graphqlQuery = graphqlQuery.trim();
-            if (!graphqlQuery.toLowerCase().startsWith("query")) {
-                graphqlQuery = "query " + graphqlQuery;
+        } else if (graphqlQuery.contains("role(id:")) {
+            logger.info("Processing 'role by id' query");
+            try {
+                Long id = extractIdFromQuery(graphqlQuery);
+                logger.info("Extracted ID: {}", id);
+                return input -> roleService.getRoleById(id);
+            } catch (Exception e) {
+                logger.error("Error extracting ID from query: {}", e.getMessage());
+                ResponseModel errorResponse = new ResponseModel();
+                errorResponse.setStatus(400);
+                errorResponse.setMessage("Invalid ID in GraphQL query");
+                errorResponse.setError("Could not parse ID: " + e.getMessage());
+                return input -> Mono.just(errorResponse);
             }
-            logger.info("Final GraphQL query after processing: {}", graphqlQuery);
-            
-            // Check for different operation types
-            if (graphqlQuery.contains("getAllRoles")) {
-                logger.info("Processing 'getAllRoles' query");
-                return roleService.getRoles();
-            } else if (graphqlQuery.contains("roles")) {
-                logger.info("Processing 'roles' query");
-                return roleService.getRoles();
-            } else if (graphqlQuery.contains("getRoleById")) {
-                logger.info("Processing 'getRoleById' query");
-                try {
-                    Long id = extractIdFromGetByIdQuery(graphqlQuery);
-                    logger.info("Extracted ID: {}", id);
-                    return roleService.getRoleById(id);
-                } catch (Exception e) {
-                    logger.error("Error extracting ID from query: {}", e.getMessage());
-                    ResponseModel errorResponse = new ResponseModel();
-                    errorResponse.setStatus(400);
-                    errorResponse.setMessage("Invalid ID in GraphQL query");
-                    errorResponse.setError("Could not parse ID: " + e.getMessage());
-                    return errorResponse;
-                }
-            } else if (graphqlQuery.contains("role(id:")) {
-                logger.info("Processing 'role by id' query");
-                try {
-                    Long id = extractIdFromQuery(graphqlQuery);
-                    logger.info("Extracted ID: {}", id);
-                    return roleService.getRoleById(id);
-                } catch (Exception e) {
-                    logger.error("Error extracting ID from query: {}", e.getMessage());
-                    ResponseModel errorResponse = new ResponseModel();
-                    errorResponse.setStatus(400);
-                    errorResponse.setMessage("Invalid ID in GraphQL query");
-                    errorResponse.setError("Could not parse ID: " + e.getMessage());
-                    return errorResponse;
-                }
-            } else if (graphqlQuery.contains("createRole")) {
-                logger.info("Processing 'createRole' mutation");
-                RoleModel role = extractRoleFromMutation(graphqlQuery, "createRole");
-                logger.info("Extracted role: title={}, description={}", role.getTitle(), role.getDescription());
-                return roleService.createRole(role);
-            } else if (graphqlQuery.contains("updateRole")) {
-                logger.info("Processing 'updateRole' mutation");
-                RoleModel role = extractRoleFromMutation(graphqlQuery, "updateRole");
-                logger.info("Extracted role: id={}, title={}, description={}", role.getId(), role.getTitle(), role.getDescription());
-                return roleService.updateRole(role);
-            } else if (graphqlQuery.contains("deleteRole")) {
-                logger.info("Processing 'deleteRole' mutation");
-                try {
-                    Long id = extractIdFromDeleteMutation(graphqlQuery);
-                    logger.info("Extracted ID for deletion: {}", id);
-                    return roleService.deleteRole(id);
-                } catch (Exception e) {
-                    logger.error("Error extracting ID for deletion: {}", e.getMessage());
-                    ResponseModel errorResponse = new ResponseModel();
-                    errorResponse.setStatus(400);
-                    errorResponse.setMessage("Invalid ID in delete mutation");
-                    errorResponse.setError("Could not parse ID: " + e.getMessage());
-                    return errorResponse;
-                }
-            } else {
-                logger.warn("Invalid GraphQL operation: {}", graphqlQuery);
+        } else if (graphqlQuery.contains("createRole")) {
+            logger.info("Processing 'createRole' mutation");
+            RoleModel role = extractRoleFromMutation(graphqlQuery, "createRole");
+            logger.info("Extracted role: title={}, description={}", role.getTitle(), role.getDescription());
+            return OperationPlan.uncached(input -> roleService.createRole(role));
+        } else if (graphqlQuery.contains("updateRole")) {
+            logger.info("Processing 'updateRole' mutation");
+            RoleModel role = extractRoleFromMutation(graphqlQuery, "updateRole");
+            logger.info("Extracted role: id={}, title={}, description={}", role.getId(), role.getTitle(), role.getDescription());
+            return OperationPlan.uncached(input -> roleService.updateRole(role));
+        } else if (graphqlQuery.contains("deleteRole")) {
+            logger.info("Processing 'deleteRole' mutation");
+            try {
+                Long id = extractIdFromDeleteMutation(graphqlQuery);
+                logger.info("Extracted ID for deletion: {}", id);
+                return OperationPlan.uncached(input -> roleService.deleteRole(id));
+            } catch (Exception e) {
+                logger.error("Error extracting ID for deletion: {}", e.getMessage());
                 ResponseModel errorResponse = new ResponseModel();
                 errorResponse.setStatus(400);
-                errorResponse.setMessage("Invalid GraphQL operation");
-                errorResponse.setError("Unsupported operation in GraphQL query");
-                return errorResponse;
+                errorResponse.setMessage("Invalid ID in delete mutation");
+                errorResponse.setError("Could not parse ID: " + e.getMessage());
+                return input -> Mono.just(errorResponse);
             }
-        } catch (Exception e) {
-            logger.error("Error processing GraphQL request: {}", e.getMessage(), e);
+        } else {
+            logger.warn("Invalid GraphQL operation: {}", graphqlQuery);
             ResponseModel errorResponse = new ResponseModel();
-            errorResponse.setStatus(500);
-            errorResponse.setMessage("Error processing GraphQL request");
-            errorResponse.setError(e.getMessage());
-            return errorResponse;
+            errorResponse.setStatus(400);
+            errorResponse.setMessage("Invalid GraphQL operation");
+            errorResponse.setError("Unsupported operation in GraphQL query");
+            return input -> Mono.just(errorResponse);
         }
     }
 
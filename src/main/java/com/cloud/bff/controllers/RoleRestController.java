@@ -2,10 +2,12 @@ package com.cloud.bff.controllers;
 
 import com.cloud.bff.models.ResponseModel;
 import com.cloud.bff.models.RoleModel;
-import com.cloud.bff.services.RoleService;
+import com.cloud.bff.services.ReactiveRoleService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.servlet.http.HttpServletRequest;
@@ -15,18 +17,27 @@ import java.io.IOException;
 @RequestMapping("/api/roles/rest")
 public class RoleRestController {
 
-    private final RoleService roleService;
+    private final ReactiveRoleService roleService;
     private final ObjectMapper objectMapper;
+    private final ConditionalGet conditionalGet;
     private final Logger logger = LoggerFactory.getLogger(RoleRestController.class);
 
-    public RoleRestController(RoleService roleService, ObjectMapper objectMapper) {
+    public RoleRestController(ReactiveRoleService roleService, ObjectMapper objectMapper, ConditionalGet conditionalGet) {
         this.roleService = roleService;
         this.objectMapper = objectMapper;
+        this.conditionalGet = conditionalGet;
     }
 
     // Single endpoint that handles all HTTP methods
     @RequestMapping(method = {RequestMethod.GET, RequestMethod.POST, RequestMethod.PUT, RequestMethod.DELETE})
-    public ResponseModel handleRequest(HttpServletRequest request) {
+    public Mono<ResponseEntity<ResponseModel>> handleRequest(HttpServletRequest request, @RequestBody(required = false) String body) {
+        if ("GET".equals(request.getMethod())) {
+            return conditionalGet.roles(route(request, body));
+        }
+        return ConditionalGet.plain(route(request, body));
+    }
+
+    private Mono<ResponseModel> route(HttpServletRequest request, String body) {
         try {
             String method = request.getMethod();
             logger.info("Handling {} request for roles", method);
@@ -35,16 +46,16 @@ public class RoleRestController {
                 case "GET":
                     return handleGet(request);
                 case "POST":
-                    return handlePost(request);
+                    return handlePost(body);
                 case "PUT":
-                    return handlePut(request);
+                    return handlePut(body);
                 case "DELETE":
-                    return handleDelete(request);
+                    return handleDelete(request, body);
                 default:
                     ResponseModel errorResponse = new ResponseModel();
                     errorResponse.setStatus(405);
                     errorResponse.setMessage("Method not allowed");
-                    return errorResponse;
+                    return Mono.just(errorResponse);
             }
         } catch (Exception e) {
             logger.error("Error processing request: {}", e.getMessage(), e);
@@ -52,11 +63,11 @@ public class RoleRestController {
             errorResponse.setStatus(500);
             errorResponse.setMessage("Internal server error");
             errorResponse.setError(e.getMessage());
-            return errorResponse;
+            return Mono.just(errorResponse);
         }
     }
     
-    private ResponseModel handleGet(HttpServletRequest request) {
+    private Mono<ResponseModel> handleGet(HttpServletRequest request) {
         String idParam = request.getParameter("id");
         if (idParam != null && !idParam.isEmpty()) {
             try {
@@ -66,36 +77,36 @@ public class RoleRestController {
                 ResponseModel errorResponse = new ResponseModel();
                 errorResponse.setStatus(400);
                 errorResponse.setMessage("Invalid role ID format");
-                return errorResponse;
+                return Mono.just(errorResponse);
             }
         } else {
             return roleService.getRoles();
         }
     }
     
-    private ResponseModel handlePost(HttpServletRequest request) throws IOException {
-        RoleModel role = objectMapper.readValue(request.getInputStream(), RoleModel.class);
+    private Mono<ResponseModel> handlePost(String body) throws IOException {
+        RoleModel role = objectMapper.readValue(body, RoleModel.class);
         if (role.getTitle() == null || role.getTitle().isEmpty()) {
             ResponseModel errorResponse = new ResponseModel();
             errorResponse.setStatus(400);
             errorResponse.setMessage("Title is required");
-            return errorResponse;
+            return Mono.just(errorResponse);
         }
         return roleService.createRole(role);
     }
     
-    private ResponseModel handlePut(HttpServletRequest request) throws IOException {
-        RoleModel role = objectMapper.readValue(request.getInputStream(), RoleModel.class);
+    private Mono<ResponseModel> handlePut(String body) throws IOException {
+        RoleModel role = objectMapper.readValue(body, RoleModel.class);
         if (role.getId() == null) {
             ResponseModel errorResponse = new ResponseModel();
             errorResponse.setStatus(400);
             errorResponse.setMessage("Role ID is required for update");
-            return errorResponse;
+            return Mono.just(errorResponse);
         }
         return roleService.updateRole(role);
     }
     
-    private ResponseModel handleDelete(HttpServletRequest request) throws IOException {
+    private Mono<ResponseModel> handleDelete(HttpServletRequest request, String body) throws IOException {
         // Check if ID is provided as a path parameter
         String pathInfo = request.getPathInfo();
         if (pathInfo != null && pathInfo.startsWith("/")) {
@@ -106,7 +117,7 @@ public class RoleRestController {
                 ResponseModel errorResponse = new ResponseModel();
                 errorResponse.setStatus(400);
                 errorResponse.setMessage("Invalid role ID format");
-                return errorResponse;
+                return Mono.just(errorResponse);
             }
         }
         
@@ -120,13 +131,13 @@ public class RoleRestController {
                 ResponseModel errorResponse = new ResponseModel();
                 errorResponse.setStatus(400);
                 errorResponse.setMessage("Invalid role ID format");
-                return errorResponse;
+                return Mono.just(errorResponse);
             }
         }
         
         // Check if ID is provided in the request body
         try {
-            RoleModel role = objectMapper.readValue(request.getInputStream(), RoleModel.class);
+            RoleModel role = objectMapper.readValue(body, RoleModel.class);
             if (role.getId() != null) {
                 return roleService.deleteRole(role.getId());
             }
@@ -137,6 +148,6 @@ public class RoleRestController {
         ResponseModel errorResponse = new ResponseModel();
         errorResponse.setStatus(400);
         errorResponse.setMessage("Role ID is required for DELETE request");
-        return errorResponse;
+        return Mono.just(errorResponse);
     }
 }
\ No newline at end of file
@@ -2,10 +2,12 @@ package com.cloud.bff.controllers;
 
 import com.cloud.bff.models.ResponseModel;
 import com.cloud.bff.models.UserModel;
-import com.cloud.bff.services.UserService;
+import com.cloud.bff.services.ReactiveUserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.servlet.http.HttpServletRequest;
@@ -15,18 +17,27 @@ import java.io.IOException;
 @RequestMapping("/api/users")
 public class UserController {
 
-    private final UserService userService;
+    private final ReactiveUserService userService;
     private final ObjectMapper objectMapper;
+    private final ConditionalGet conditionalGet;
     private final Logger logger = LoggerFactory.getLogger(UserController.class);
 
-    public UserController(UserService userService, ObjectMapper objectMapper) {
+    public UserController(ReactiveUserService userService, ObjectMapper objectMapper, ConditionalGet conditionalGet) {
         this.userService = userService;
         this.objectMapper = objectMapper;
+        this.conditionalGet = conditionalGet;
     }
 
     // Single endpoint that handles all HTTP methods
     @RequestMapping(method = {RequestMethod.GET, RequestMethod.POST, RequestMethod.PUT, RequestMethod.DELETE})
-    public ResponseModel handleRequest(HttpServletRequest request) {
+    public Mono<ResponseEntity<ResponseModel>> handleRequest(HttpServletRequest request, @RequestBody(required = false) String body) {
+        if ("GET".equals(request.getMethod())) {
+            return conditionalGet.users(route(request, body));
+        }
+        return ConditionalGet.plain(route(request, body));
+    }
+
+    private Mono<ResponseModel> route(HttpServletRequest request, String body) {
         try {
             String method = request.getMethod();
             logger.info("Handling {} request", method);
@@ -35,16 +46,16 @@ public class UserController {
                 case "GET":
                     return handleGet();
                 case "POST":
-                    return handlePost(request);
+                    return handlePost(body);
                 case "PUT":
-                    return handlePut(request);
+                    return handlePut(body);
                 case "DELETE":
                     return handleDelete(request);
                 default:
                     ResponseModel errorResponse = new ResponseModel();
                     errorResponse.setStatus(405);
                     errorResponse.setMessage("Method not allowed");
-                    return errorResponse;
+                    return Mono.just(errorResponse);
             }
         } catch (Exception e) {
             logger.error("Error processing request: {}", e.getMessage(), e);
@@ -52,25 +63,25 @@ public class UserController {
             errorResponse.setStatus(500);
             errorResponse.setMessage("Internal server error");
             errorResponse.setError(e.getMessage());
-            return errorResponse;
+            return Mono.just(errorResponse);
         }
     }
     
-    private ResponseModel handleGet() {
+    private Mono<ResponseModel> handleGet() {
         return userService.getUsers();
     }
     
-    private ResponseModel handlePost(HttpServletRequest request) throws IOException {
-        UserModel user = objectMapper.readValue(request.getInputStream(), UserModel.class);
+    private Mono<ResponseModel> handlePost(String body) throws IOException {
+        UserModel user = objectMapper.readValue(body, UserModel.class);
         return userService.addUser(user);
     }
     
-    private ResponseModel handlePut(HttpServletRequest request) throws IOException {
-        UserModel user = objectMapper.readValue(request.getInputStream(), UserModel.class);
+    private Mono<ResponseModel> handlePut(String body) throws IOException {
+        UserModel user = objectMapper.readValue(body, UserModel.class);
         return userService.updateUser(user);
     }
     
-    private ResponseModel handleDelete(HttpServletRequest request) {
+    private Mono<ResponseModel> handleDelete(HttpServletRequest request) {
         String pathInfo = request.getPathInfo();
         if (pathInfo != null && pathInfo.startsWith("/")) {
             try {
@@ -80,7 +91,7 @@ public class UserController {
                 ResponseModel errorResponse = new ResponseModel();
                 errorResponse.setStatus(400);
                 errorResponse.setMessage("Invalid user ID format");
-                return errorResponse;
+                return Mono.just(errorResponse);
             }
         }
         
@@ -94,13 +105,13 @@ public class UserController {
                 ResponseModel errorResponse = new ResponseModel();
                 errorResponse.setStatus(400);
                 errorResponse.setMessage("Invalid user ID format");
-                return errorResponse;
+                return Mono.just(errorResponse);
             }
         }
         
         ResponseModel errorResponse = new ResponseModel();
         errorResponse.setStatus(400);
         errorResponse.setMessage("User ID is required for DELETE request");
-        return errorResponse;
+        return Mono.just(errorResponse);
     }
 }
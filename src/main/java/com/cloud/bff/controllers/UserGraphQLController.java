@@ -1,120 +1,134 @@
 package com.cloud.bff.controllers;
 
+import com.cloud.bff.graphql.ExecutionInput;
+import com.cloud.bff.graphql.OperationCache;
+import com.cloud.bff.graphql.OperationPlan;
 import com.cloud.bff.models.ResponseModel;
 import com.cloud.bff.models.UserModel;
-import com.cloud.bff.services.UserService;
+import com.cloud.bff.services.ReactiveUserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.JsonNode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
 @RequestMapping("/api/users/graphql")
 public class UserGraphQLController {
 
-    private final UserService userService;
+    private static final String ENDPOINT = "/api/users/graphql";
+
+    private final ReactiveUserService userService;
     private final ObjectMapper objectMapper;
+    private final OperationCache operationCache;
     private final Logger logger = LoggerFactory.getLogger(UserGraphQLController.class);
 
-    public UserGraphQLController(UserService userService, ObjectMapper objectMapper) {
+    public UserGraphQLController(ReactiveUserService userService, ObjectMapper objectMapper, OperationCache operationCache) {
         this.userService = userService;
         this.objectMapper = objectMapper;
+        this.operationCache = operationCache;
     }
 
     @PostMapping
-    public ResponseModel handleGraphQL(@RequestBody String requestBody) {
+    public Mono<ResponseModel> handleGraphQL(@RequestBody String requestBody) {
         try {
             logger.info("Received GraphQL request for users: {}", requestBody);
-            
-            // Try to parse as JSON first (standard GraphQL format)
-            String graphqlQuery = "";
-            try {
-                JsonNode rootNode = objectMapper.readTree(requestBody);
-                if (rootNode.has("query")) {
-                    String queryValue = rootNode.get("query").asText();
-                    try {
-                        // Check if the query value is itself JSON
-                        JsonNode queryNode = objectMapper.readTree(queryValue);
-                        if (queryNode.has("query")) {
-                            // We have a nested query object
-                            graphqlQuery = queryNode.get("query").asText();
-                        } else {
-                            // Not a nested object, use the query value directly
-                            graphqlQuery = queryValue;
-                        }
-                    } catch (Exception e) {
-                        // The query value is not valid JSON, use it as-is
+
+            return operationCache.get(ENDPOINT, requestBody, this::analyse).execute(new ExecutionInput(null, null, null));
+        } catch (Exception e) {
+            logger.error("Error processing GraphQL request: {}", e.getMessage(), e);
+            ResponseModel errorResponse = new ResponseModel();
+            errorResponse.setStatus(500);
+            errorResponse.setMessage("Error processing GraphQL request");
+            errorResponse.setError(e.getMessage());
+            return Mono.just(errorResponse);
+        }
+    }
+
+    // Cleans up the request and routes it once for every later request; mutation plans hold the
+    // models they write, passwords included, so they are only used for the request at hand
+    private OperationPlan analyse(String requestBody) {
+        // Try to parse as JSON first (standard GraphQL format)
+        String graphqlQuery = "";
+        try {
+            JsonNode rootNode = objectMapper.readTree(requestBody);
+            if (rootNode.has("query")) {
+                String queryValue = rootNode.get("query").asText();
+                try {
+                    // Check if the query value is itself JSON
+                    JsonNode queryNode = objectMapper.readTree(queryValue);
+                    if (queryNode.has("query")) {
+                        // We have a nested query object
+                        graphqlQuery = queryNode.get("query").asText();
+                    } else {
+                        // Not a nested object, use the query value directly
                         graphqlQuery = queryValue;
                     }
-                    logger.info("Parsed GraphQL query from JSON: {}", graphqlQuery);
-                } else {
-                    // If not in standard format, use the raw body
-                    graphqlQuery = requestBody;
-                }
-            } catch (Exception e) {
-                // Not valid JSON, assume it's a raw GraphQL query
-                graphqlQuery = requestBody;
-                logger.info("Using raw GraphQL query: {}", graphqlQuery);
-            }
-            
-            // Remove any enclosing quotes and escape sequences that might be present
-            graphqlQuery = graphqlQuery.trim();
-            if (graphqlQuery.startsWith("\"") && graphqlQuery.endsWith("\"")) {
-                graphqlQuery = graphqlQuery.substring(1, graphqlQuery.length() - 1);
-            }
-            graphqlQuery = graphqlQuery.replace("\\n", "\n").replace("\\\"", "\"").replace("\\\\", "\\");
-            
-            // After cleaning the graphqlQuery string
-            graphqlQuery = graphqlQuery.trim();
-            if (!graphqlQuery.toLowerCase().startsWith("query") && !graphqlQuery.toLowerCase().startsWith("mutation")) {
-                graphqlQuery = "query " + graphqlQuery;
-            }
-            logger.info("Final GraphQL query after processing: {}", graphqlQuery);
-            
-            // Check for different operation types
-            if (graphqlQuery.contains("getAllUsers") || graphqlQuery.contains("users")) {
-                logger.info("Processing 'getAllUsers' query");
-                return userService.getUsers();
-            } else if (graphqlQuery.contains("createUser")) {
-                logger.info("Processing 'createUser' mutation");
-                UserModel user = extractUserFromMutation(graphqlQuery, "createUser");
-                logger.info("Extracted user: email={}, rol={}", user.getEmail(), user.getRol());
-                return userService.addUser(user);
-            } else if (graphqlQuery.contains("updateUser")) {
-                logger.info("Processing 'updateUser' mutation");
-                UserModel user = extractUserFromMutation(graphqlQuery, "updateUser");
-                logger.info("Extracted user: id={}, email={}, rol={}", user.getId(), user.getEmail(), user.getRol());
-                return userService.updateUser(user);
-            } else if (graphqlQuery.contains("deleteUser")) {
-                logger.info("Processing 'deleteUser' mutation");
-                try {
-                    Long id = extractIdFromDeleteMutation(graphqlQuery);
-                    logger.info("Extracted ID for deletion: {}", id);
-                    return userService.deleteUser(id);
                 } catch (Exception e) {
-                    logger.error("Error extracting ID for deletion: {}", e.getMessage());
-                    ResponseModel errorResponse = new ResponseModel();
-                    errorResponse.setStatus(400);
-                    errorResponse.setMessage("Invalid ID in delete mutation");
-                    errorResponse.setError("Could not parse ID: " + e.getMessage());
-                    return errorResponse;
+                    // The query value is not valid JSON, use it as-is
+                    graphqlQuery = queryValue;
                 }
+                logger.info("Parsed GraphQL query from JSON: {}", graphqlQuery);
             } else {
-                logger.warn("Invalid GraphQL operation: {}", graphqlQuery);
+                // If not in standard format, use the raw body
+                graphqlQuery = requestBody;
+            }
+        } catch (Exception e) {
+            // Not valid JSON, assume it's a raw GraphQL query
+            graphqlQuery = requestBody;
+            logger.info("Using raw GraphQL query: {}", graphqlQuery);
+        }
+        
+        // Remove any enclosing quotes and escape sequences that might be present
+        graphqlQuery = graphqlQuery.trim();
+        if (graphqlQuery.startsWith("\"") && graphqlQuery.endsWith("\"")) {
+            graphqlQuery = graphqlQuery.substring(1, graphqlQuery.length() - 1);
+        }
+        graphqlQuery = graphqlQuery.replace("\\n", "\n").replace("\\\"", "\"").replace("\\\\", "\\");
+        
+        // After cleaning the graphqlQuery string
+        graphqlQuery = graphqlQuery.trim();
+        if (!graphqlQuery.toLowerCase().startsWith("query") && !graphqlQuery.toLowerCase().startsWith("mutation")) {
+            graphqlQuery = "query " + graphqlQuery;
+        }
+        logger.info("Final GraphQL query after processing: {}", graphqlQuery);
+        
+        // Check for different operation types
+        if (graphqlQuery.contains("getAllUsers") || graphqlQuery.contains("users")) {
+            logger.info("Processing 'getAllUsers' query");
+            return input -> userService.getUsers();
+        } else if (graphqlQuery.contains("createUser")) {
+            logger.info("Processing 'createUser' mutation");
+            UserModel user = extractUserFromMutation(graphqlQuery, "createUser");
+            logger.info("Extracted user: email={}, rol={}", user.getEmail(), user.getRol());
+            return OperationPlan.uncached(input -> userService.addUser(user));
+        } else if (graphqlQuery.contains("updateUser")) {
+            logger.info("Processing 'updateUser' mutation");
+            UserModel user = extractUserFromMutation(graphqlQuery, "updateUser");
+            logger.info("Extracted user: id={}, email={}, rol={}", user.getId(), user.getEmail(), user.getRol());
+            return OperationPlan.uncached(input -> userService.updateUser(user));
+        } else if (graphqlQuery.contains("deleteUser")) {
+            logger.info("Processing 'deleteUser' mutation");
+            try {
+                Long id = extractIdFromDeleteMutation(graphqlQuery);
+                logger.info("Extracted ID for deletion: {}", id);
+                return OperationPlan.uncached(input -> userService.deleteUser(id));
+            } catch (Exception e) {
+                logger.error("Error extracting ID for deletion: {}", e.getMessage());
                 ResponseModel errorResponse = new ResponseModel();
                 errorResponse.setStatus(400);
-                errorResponse.setMessage("Invalid GraphQL operation");
-                errorResponse.setError("Unsupported operation in GraphQL query");
-                return errorResponse;
+                errorResponse.setMessage("Invalid ID in delete mutation");
+                errorResponse.setError("Could not parse ID: " + e.getMessage());
+                return input -> Mono.just(errorResponse);
             }
-        } catch (Exception e) {
-            logger.error("Error processing GraphQL request: {}", e.getMessage(), e);
+        } else {
+            logger.warn("Invalid GraphQL operation: {}", graphqlQuery);
             ResponseModel errorResponse = new ResponseModel();
-            errorResponse.setStatus(500);
-            errorResponse.setMessage("Error processing GraphQL request");
-            errorResponse.setError(e.getMessage());
-            return errorResponse;
+            errorResponse.setStatus(400);
+            errorResponse.setMessage("Invalid GraphQL operation");
+            errorResponse.setError("Unsupported operation in GraphQL query");
+            return input -> Mono.just(errorResponse);
         }
     }
 
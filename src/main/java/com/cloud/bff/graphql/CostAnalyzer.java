@@ -0,0 +1,154 @@
+package com.cloud.bff.graphql;
+
+import com.cloud.bff.config.GraphQLProperties;
+import com.cloud.bff.models.ResponseModel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Static cost and depth of GraphQL operations. Scores are computed from the parsed
+ * document when it is analysed, so cached plans carry them for free; directives are
+ * not evaluated, which makes the score the worst case over every set of variables.
+ * An operation over budget, or a batch whose operations add up to more than the
+ * budget, is answered with a 400 before any upstream call. Admitted cost is added to
+ * bff.graphql.cost and rejections to bff.graphql.cost.rejected, both tagged by client.
+ */
+@Component
+@EnableConfigurationProperties(GraphQLProperties.class)
+public class CostAnalyzer {
+
+    private static final Set<String> LIST_FIELDS = Set.of("roles", "getAllRoles", "users", "getAllUsers");
+    private static final String ANONYMOUS = "anonymous";
+    private static final String OTHER = "other";
+
+    private final GraphQLProperties.Cost properties;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<String, Meters> meters = new ConcurrentHashMap<>();
+
+    public CostAnalyzer(GraphQLProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties.getCost();
+        this.meterRegistry = meterRegistry;
+    }
+
+    public record OperationCost(int cost, int depth) {
+    }
+
+    public OperationCost score(OperationDefinition operation) {
+        int cost = 0;
+        for (Field field : operation.getSelections()) {
+            if (field.getName().equals("__typename")) {
+                continue;
+            }
+            if (operation.getType() == OperationDefinition.Type.MUTATION) {
+                cost += properties.getMutationCost();
+            } else if (LIST_FIELDS.contains(field.getName())) {
+                cost += properties.getListCost();
+            } else {
+                cost += properties.getLookupCost();
+            }
+        }
+        return new OperationCost(cost, depth(operation.getSelections()));
+    }
+
+    /**
+     * How deep the parser lets a document nest. Inline fragments, fragment spreads and
+     * argument values nest without adding to the depth scored here, so there is room
+     * for them above max-depth; a document nested further is rejected while parsing.
+     */
+    public int maxNesting() {
+        return properties.getMaxDepth() * 4;
+    }
+
+    // Fields an operation may select once its fragments are expanded; checked while parsing
+    public int maxSelections() {
+        return properties.getMaxSelections();
+    }
+
+    private int depth(List<Field> selections) {
+        int depth = 0;
+        for (Field field : selections) {
+            depth = Math.max(depth, depth(field.getSelections()));
+        }
+        return selections.isEmpty() ? 0 : depth + 1;
+    }
+
+    /**
+     * Counts the operation against {@code client}; returns the response to answer it
+     * with when it is over budget, or null when it may run.
+     */
+    public ResponseModel admit(OperationCost cost, String client) {
+        Meters clientMeters = meters(client);
+        String error = null;
+        if (cost.cost() > properties.getMaxCost()) {
+            error = "Query cost " + cost.cost() + " exceeds the maximum of " + properties.getMaxCost();
+        } else if (cost.depth() > properties.getMaxDepth()) {
+            error = "Query depth " + cost.depth() + " exceeds the maximum of " + properties.getMaxDepth();
+        }
+
+        if (error == null) {
+            clientMeters.cost.increment(cost.cost());
+            return null;
+        }
+        clientMeters.rejected.increment();
+        return tooComplex(error);
+    }
+
+    /**
+     * Checks the summed cost of a batch against the same budget as a single operation,
+     * before any of its operations runs; returns the response to answer the whole batch
+     * with when it is over, or null when it may run. Admitted operations are still counted
+     * one by one as they run.
+     */
+    public ResponseModel admitBatch(int totalCost, String client) {
+        if (totalCost <= properties.getMaxCost()) {
+            return null;
+        }
+        meters(client).rejected.increment();
+        return tooComplex("Batch cost " + totalCost + " exceeds the maximum of " + properties.getMaxCost());
+    }
+
+    private ResponseModel tooComplex(String error) {
+        ResponseModel responseModel = new ResponseModel();
+        responseModel.setStatus(400);
+        responseModel.setMessage("Query too complex");
+        responseModel.setError(error);
+        return responseModel;
+    }
+
+    // The client header is caller-supplied, so the number of distinct tags is capped
+    private Meters meters(String client) {
+        String tag = client == null || client.isBlank() ? ANONYMOUS : client.trim();
+        if (tag.length() > 64) {
+            tag = tag.substring(0, 64);
+        }
+        Meters existing = meters.get(tag);
+        if (existing != null) {
+            return existing;
+        }
+        if (meters.size() >= properties.getMaxClients()) {
+            return meters.computeIfAbsent(OTHER, this::register);
+        }
+        return meters.computeIfAbsent(tag, this::register);
+    }
+
+    private Meters register(String client) {
+        return new Meters(
+                Counter.builder("bff.graphql.cost")
+                        .description("Static cost of the GraphQL operations admitted")
+                        .tag("client", client)
+                        .register(meterRegistry),
+                Counter.builder("bff.graphql.cost.rejected")
+                        .description("GraphQL operations rejected for exceeding the cost or depth limit")
+                        .tag("client", client)
+                        .register(meterRegistry));
+    }
+
+    private record Meters(Counter cost, Counter rejected) {
+    }
+}
@@ -0,0 +1,53 @@
+package com.cloud.bff.graphql;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Per-request batching loader. Fields register the keys they need with {@link #load},
+ * duplicate keys share one pending result, and {@link #dispatch} hands every distinct
+ * key collected so far to the batch function in a single call.
+ */
+public class DataLoader<K, V> {
+
+    private final Function<Set<K>, Mono<Map<K, V>>> batchFunction;
+    private final Map<K, Sinks.One<V>> pending = new LinkedHashMap<>();
+
+    public DataLoader(Function<Set<K>, Mono<Map<K, V>>> batchFunction) {
+        this.batchFunction = batchFunction;
+    }
+
+    public synchronized Mono<V> load(K key) {
+        return pending.computeIfAbsent(key, k -> Sinks.one()).asMono();
+    }
+
+    public Mono<Void> dispatch() {
+        Map<K, Sinks.One<V>> batch;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return Mono.empty();
+            }
+            batch = new LinkedHashMap<>(pending);
+            pending.clear();
+        }
+
+        return batchFunction.apply(batch.keySet())
+                .doOnNext(results -> batch.forEach((key, sink) -> {
+                    V value = results.get(key);
+                    if (value != null) {
+                        sink.tryEmitValue(value);
+                    } else {
+                        sink.tryEmitEmpty();
+                    }
+                }))
+                .doOnError(e -> batch.values().forEach(sink -> sink.tryEmitError(e)))
+                // Keys the batch function never answered resolve empty instead of hanging
+                .doFinally(signal -> batch.values().forEach(Sinks.One::tryEmitEmpty))
+                .then();
+    }
+}
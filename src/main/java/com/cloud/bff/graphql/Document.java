@@ -0,0 +1,31 @@
+package com.cloud.bff.graphql;
+
+import java.util.List;
+
+/**
+ * A parsed GraphQL document. Parsed documents hold no request state and are shared
+ * between requests through the operation cache.
+ */
+public class Document {
+
+    private final List<OperationDefinition> operations;
+
+    public Document(List<OperationDefinition> operations) {
+        this.operations = operations;
+    }
+
+    public List<OperationDefinition> getOperations() {
+        return operations;
+    }
+
+    // The operation to run: the only one, or the one named; null when that is ambiguous or unknown
+    public OperationDefinition getOperation(String operationName) {
+        if (operationName == null || operationName.isEmpty()) {
+            return operations.size() == 1 ? operations.get(0) : null;
+        }
+        return operations.stream()
+                .filter(operation -> operationName.equals(operation.getName()))
+                .findFirst()
+                .orElse(null);
+    }
+}
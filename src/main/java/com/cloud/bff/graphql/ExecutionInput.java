@@ -0,0 +1,10 @@
+package com.cloud.bff.graphql;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * What a request adds to a cached {@link OperationPlan}: the operation to run, the
+ * values of its variables and the client it comes from.
+ */
+public record ExecutionInput(String operationName, JsonNode variables, String clientId) {
+}
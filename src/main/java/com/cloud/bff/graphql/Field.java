@@ -0,0 +1,83 @@
+package com.cloud.bff.graphql;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A field of a selection set, with fragments already inlined: the directives of the
+ * fragments it came from are added to its own, so skipping a fragment skips its fields.
+ */
+public class Field {
+
+    private final String alias;
+    private final String name;
+    private final Map<String, Value> arguments;
+    private final List<Directive> directives;
+    private final List<Field> selections;
+
+    public Field(String alias, String name, Map<String, Value> arguments, List<Directive> directives,
+                 List<Field> selections) {
+        this.alias = alias != null ? alias : name;
+        this.name = name;
+        this.arguments = arguments;
+        this.directives = directives;
+        this.selections = selections;
+    }
+
+    public String getAlias() {
+        return alias;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Map<String, Value> getArguments() {
+        return arguments;
+    }
+
+    public List<Directive> getDirectives() {
+        return directives;
+    }
+
+    public List<Field> getSelections() {
+        return selections;
+    }
+
+    public boolean isAliased() {
+        return !alias.equals(name);
+    }
+
+    // @skip and @include, evaluated against this request's variables
+    public boolean isIncluded(JsonNode variables) {
+        for (Directive directive : directives) {
+            Value condition = directive.getArguments().get("if");
+            boolean value = condition != null && condition.resolve(variables).asBoolean(false);
+            if (directive.getName().equals("skip") && value || directive.getName().equals("include") && !value) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static class Directive {
+
+        private final String name;
+        private final Map<String, Value> arguments;
+
+        public Directive(String name, Map<String, Value> arguments) {
+            this.name = name;
+            this.arguments = arguments;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Map<String, Value> getArguments() {
+            return arguments;
+        }
+    }
+}
@@ -0,0 +1,644 @@
+package com.cloud.bff.graphql;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Recursive-descent parser for GraphQL executable documents: operations, variables
+ * with defaults, aliases, arguments, directives, fragments and inline fragments.
+ * Tokens are scanned straight from the text, skipping whitespace, commas and comments.
+ * Fragments are inlined once parsing is done, and fields with the same response name
+ * are merged, so the executor only ever walks plain fields. Nesting of selection sets,
+ * fragment spreads and list or object values is capped, so a hostile document is
+ * rejected as a syntax error instead of exhausting the stack. Each fragment is expanded
+ * once and shared by all its spreads, and the number of fields the expanded operation
+ * selects is capped, so a few bytes of spreads cannot fan out into millions of fields.
+ */
+public class GraphQLParser {
+
+    private static final JsonNodeFactory NODES = JsonNodeFactory.instance;
+
+    private final String source;
+    private final int maxNesting;
+    private final int maxSelections;
+    private final Map<String, List<Field>> expandedFragments = new HashMap<>();
+    private int position;
+    private int nesting;
+    private int fieldsBuilt;
+
+    private GraphQLParser(String source, int maxNesting, int maxSelections) {
+        this.source = source;
+        this.maxNesting = maxNesting;
+        this.maxSelections = maxSelections;
+    }
+
+    public static Document parse(String source, int maxNesting, int maxSelections) {
+        return new GraphQLParser(source, maxNesting, maxSelections).document();
+    }
+
+    // Selections before fragments are inlined
+    private interface Selection {
+    }
+
+    private record FieldSelection(String alias, String name, Map<String, Value> arguments,
+                                  List<Field.Directive> directives, List<Selection> selections)
+            implements Selection {
+    }
+
+    private record FragmentSpread(String name, List<Field.Directive> directives) implements Selection {
+    }
+
+    private record InlineFragment(List<Field.Directive> directives, List<Selection> selections)
+            implements Selection {
+    }
+
+    // Argument values compare structurally, so two selections of a field can be told apart by their arguments
+    private record Variable(String name) implements Value {
+        @Override
+        public JsonNode resolve(JsonNode variables) {
+            return variables != null && variables.has(name) ? variables.get(name) : NullNode.getInstance();
+        }
+
+        @Override
+        public boolean isInline() {
+            return false;
+        }
+    }
+
+    private record ListValue(List<Value> items) implements Value {
+        @Override
+        public JsonNode resolve(JsonNode variables) {
+            ArrayNode array = NODES.arrayNode();
+            items.forEach(item -> array.add(item.resolve(variables)));
+            return array;
+        }
+
+        @Override
+        public boolean isInline() {
+            return items.stream().anyMatch(Value::isInline);
+        }
+    }
+
+    private record ObjectValue(Map<String, Value> fields) implements Value {
+        @Override
+        public JsonNode resolve(JsonNode variables) {
+            ObjectNode object = NODES.objectNode();
+            fields.forEach((name, field) -> object.set(name, field.resolve(variables)));
+            return object;
+        }
+
+        @Override
+        public boolean isInline() {
+            return fields.values().stream().anyMatch(Value::isInline);
+        }
+    }
+
+    private record Literal(JsonNode value) implements Value {
+        @Override
+        public JsonNode resolve(JsonNode variables) {
+            return value;
+        }
+    }
+
+    private record RawOperation(OperationDefinition.Type type, String name, Map<String, JsonNode> variableDefaults,
+                                List<Selection> selections) {
+    }
+
+    private Document document() {
+        List<RawOperation> operations = new ArrayList<>();
+        Map<String, List<Selection>> fragments = new LinkedHashMap<>();
+
+        skipIgnored();
+        if (atEnd()) {
+            throw error("Unexpected end of document, expected an operation");
+        }
+        // Trailing whitespace and comments are not a definition
+        while (peek() != 0) {
+            if (peek() == '{') {
+                operations.add(new RawOperation(OperationDefinition.Type.QUERY, null, Map.of(), selectionSet()));
+                continue;
+            }
+            String keyword = name();
+            switch (keyword) {
+                case "query" -> operations.add(operation(OperationDefinition.Type.QUERY));
+                case "mutation" -> operations.add(operation(OperationDefinition.Type.MUTATION));
+                case "fragment" -> {
+                    String fragmentName = name();
+                    expectKeyword("on");
+                    name();
+                    directives();
+                    if (fragments.put(fragmentName, selectionSet()) != null) {
+                        throw error("There can be only one fragment named \"" + fragmentName + "\"");
+                    }
+                }
+                default -> throw error("Unexpected \"" + keyword + "\"");
+            }
+        }
+
+        List<OperationDefinition> resolved = new ArrayList<>();
+        for (RawOperation operation : operations) {
+            List<Field> selections = inline(operation.selections(), List.of(), fragments, new HashSet<>());
+            // Shared fragment bodies are walked once per spread by everything after the parser
+            if (size(selections, new IdentityHashMap<>()) > maxSelections) {
+                throw tooManySelections();
+            }
+            resolved.add(new OperationDefinition(operation.type(), operation.name(), operation.variableDefaults(),
+                    selections));
+        }
+        return new Document(resolved);
+    }
+
+    private RawOperation operation(OperationDefinition.Type type) {
+        String name = peek() != '(' && peek() != '{' && peek() != '@' ? name() : null;
+        Map<String, JsonNode> variableDefaults = new LinkedHashMap<>();
+        if (peek() == '(') {
+            expect('(');
+            while (peek() != ')') {
+                expect('$');
+                String variable = name();
+                expect(':');
+                type();
+                variableDefaults.put(variable, NullNode.getInstance());
+                if (peek() == '=') {
+                    expect('=');
+                    variableDefaults.put(variable, value(true).resolve(null));
+                }
+                directives();
+            }
+            expect(')');
+        }
+        directives();
+        // Variables without a default are only set when the request provides them
+        variableDefaults.values().removeIf(JsonNode::isNull);
+        return new RawOperation(type, name, variableDefaults, selectionSet());
+    }
+
+    private void type() {
+        if (peek() == '[') {
+            enter();
+            expect('[');
+            type();
+            expect(']');
+            nesting--;
+        } else {
+            name();
+        }
+        if (peek() == '!') {
+            expect('!');
+        }
+    }
+
+    private List<Selection> selectionSet() {
+        enter();
+        expect('{');
+        if (peek() == '}') {
+            throw error("Expected a field, found \"}\"");
+        }
+        List<Selection> selections = new ArrayList<>();
+        while (peek() != '}') {
+            selections.add(selection());
+        }
+        expect('}');
+        nesting--;
+        return selections;
+    }
+
+    private Selection selection() {
+        if (peek() == '.') {
+            spread();
+            if (peek() == '{' || peek() == '@') {
+                return new InlineFragment(directives(), selectionSet());
+            }
+            String name = name();
+            if (name.equals("on")) {
+                name();
+                return new InlineFragment(directives(), selectionSet());
+            }
+            return new FragmentSpread(name, directives());
+        }
+
+        String alias = null;
+        String name = name();
+        if (peek() == ':') {
+            expect(':');
+            alias = name;
+            name = name();
+        }
+        Map<String, Value> arguments = peek() == '(' ? arguments(false) : Map.of();
+        List<Field.Directive> directives = directives();
+        List<Selection> selections = peek() == '{' ? selectionSet() : List.of();
+        return new FieldSelection(alias, name, arguments, directives, selections);
+    }
+
+    private Map<String, Value> arguments(boolean constant) {
+        expect('(');
+        Map<String, Value> arguments = new LinkedHashMap<>();
+        while (peek() != ')') {
+            String name = name();
+            expect(':');
+            arguments.put(name, value(constant));
+        }
+        expect(')');
+        return arguments;
+    }
+
+    private List<Field.Directive> directives() {
+        List<Field.Directive> directives = new ArrayList<>();
+        while (peek() == '@') {
+            expect('@');
+            String name = name();
+            directives.add(new Field.Directive(name, peek() == '(' ? arguments(false) : Map.of()));
+        }
+        return directives;
+    }
+
+    private Value value(boolean constant) {
+        char c = peek();
+        if (c == '$') {
+            if (constant) {
+                throw error("Unexpected variable in a constant value");
+            }
+            expect('$');
+            return new Variable(name());
+        }
+        if (c == '[') {
+            enter();
+            expect('[');
+            List<Value> items = new ArrayList<>();
+            while (peek() != ']') {
+                items.add(value(constant));
+            }
+            expect(']');
+            nesting--;
+            return new ListValue(items);
+        }
+        if (c == '{') {
+            enter();
+            expect('{');
+            Map<String, Value> fields = new LinkedHashMap<>();
+            while (peek() != '}') {
+                String name = name();
+                expect(':');
+                fields.put(name, value(constant));
+            }
+            expect('}');
+            nesting--;
+            return new ObjectValue(fields);
+        }
+
+        JsonNode literal;
+        if (c == '"') {
+            literal = NODES.textNode(string());
+        } else if (c == '-' || Character.isDigit(c)) {
+            literal = number();
+        } else {
+            String name = name();
+            literal = switch (name) {
+                case "true" -> NODES.booleanNode(true);
+                case "false" -> NODES.booleanNode(false);
+                case "null" -> NullNode.getInstance();
+                // Enum values travel as their names
+                default -> NODES.textNode(name);
+            };
+        }
+        return new Literal(literal);
+    }
+
+    private void enter() {
+        if (++nesting > maxNesting) {
+            throw error("Document is nested more than " + maxNesting + " levels deep");
+        }
+    }
+
+    private List<Field> inline(List<Selection> selections, List<Field.Directive> inherited,
+                               Map<String, List<Selection>> fragments, Set<String> expanding) {
+        Map<String, Field> fields = new LinkedHashMap<>();
+        for (Selection selection : selections) {
+            List<Field> expanded;
+            if (selection instanceof FieldSelection field) {
+                List<Field> selected = inline(field.selections(), List.of(), fragments, expanding);
+                expanded = List.of(field(field.alias(), field.name(), field.arguments(),
+                        concat(inherited, field.directives()), selected));
+            } else if (selection instanceof InlineFragment fragment) {
+                expanded = inline(fragment.selections(), concat(inherited, fragment.directives()), fragments, expanding);
+            } else {
+                FragmentSpread spread = (FragmentSpread) selection;
+                expanded = withDirectives(expand(spread.name(), fragments, expanding),
+                        concat(inherited, spread.directives()));
+            }
+            for (Field field : expanded) {
+                fields.merge(field.getAlias(), field, this::merge);
+            }
+        }
+        return List.copyOf(fields.values());
+    }
+
+    // A fragment's fields, expanded the first time it is spread and shared by every later spread
+    private List<Field> expand(String name, Map<String, List<Selection>> fragments, Set<String> expanding) {
+        List<Field> expanded = expandedFragments.get(name);
+        if (expanded != null) {
+            return expanded;
+        }
+        List<Selection> fragment = fragments.get(name);
+        if (fragment == null) {
+            throw new GraphQLSyntaxException("Unknown fragment \"" + name + "\"");
+        }
+        if (!expanding.add(name)) {
+            throw new GraphQLSyntaxException("Cannot spread fragment \"" + name + "\" within itself");
+        }
+        // Each fragment body is parsed on its own, so a chain of spreads nests without bound
+        if (expanding.size() > maxNesting) {
+            throw new GraphQLSyntaxException("Fragment spreads are nested more than " + maxNesting + " levels deep");
+        }
+        expanded = inline(fragment, List.of(), fragments, expanding);
+        expanding.remove(name);
+        expandedFragments.put(name, expanded);
+        return expanded;
+    }
+
+    // The directives of the spread or inline fragment apply to each field it brings in
+    private List<Field> withDirectives(List<Field> fields, List<Field.Directive> directives) {
+        if (directives.isEmpty()) {
+            return fields;
+        }
+        List<Field> directed = new ArrayList<>(fields.size());
+        for (Field field : fields) {
+            directed.add(field(field.getAlias(), field.getName(), field.getArguments(),
+                    concat(directives, field.getDirectives()), field.getSelections()));
+        }
+        return directed;
+    }
+
+    /**
+     * Every field is built through here. Shared fragments keep the count close to the
+     * size of the document, while merging can add up to one more field per selected
+     * one, so the budget is a multiple of the number of fields an operation may select.
+     */
+    private Field field(String alias, String name, Map<String, Value> arguments, List<Field.Directive> directives,
+                        List<Field> selections) {
+        if (++fieldsBuilt > 4 * maxSelections) {
+            throw tooManySelections();
+        }
+        return new Field(alias, name, arguments, directives, selections);
+    }
+
+    // Number of fields selected once shared fragments are counted at every spread, capped just past the limit
+    private long size(List<Field> fields, Map<List<Field>, Long> sizes) {
+        Long known = sizes.get(fields);
+        if (known != null) {
+            return known;
+        }
+        long size = 0;
+        for (Field field : fields) {
+            size = Math.min(maxSelections + 1L, size + 1 + size(field.getSelections(), sizes));
+        }
+        sizes.put(fields, size);
+        return size;
+    }
+
+    private GraphQLSyntaxException tooManySelections() {
+        return new GraphQLSyntaxException("Query selects more than " + maxSelections + " fields");
+    }
+
+    // The same response name selected twice, e.g. directly and through a fragment; both must select the same data
+    private Field merge(Field first, Field second) {
+        // The same shared field, e.g. a fragment spread twice, is already merged with itself
+        if (first == second) {
+            return first;
+        }
+        if (!first.getName().equals(second.getName())) {
+            throw new GraphQLSyntaxException("Fields \"" + first.getAlias() + "\" conflict because \""
+                    + first.getName() + "\" and \"" + second.getName() + "\" are different fields");
+        }
+        if (!first.getArguments().equals(second.getArguments())) {
+            throw new GraphQLSyntaxException("Fields \"" + first.getAlias()
+                    + "\" conflict because they have differing arguments");
+        }
+        List<Field> merged = first.getSelections();
+        if (first.getSelections() != second.getSelections()) {
+            Map<String, Field> selections = new LinkedHashMap<>();
+            for (Field field : concat(first.getSelections(), second.getSelections())) {
+                selections.merge(field.getAlias(), field, this::merge);
+            }
+            merged = List.copyOf(selections.values());
+        }
+        return field(first.getAlias(), first.getName(), first.getArguments(), first.getDirectives(), merged);
+    }
+
+    private static <T> List<T> concat(List<T> first, List<T> second) {
+        if (first.isEmpty()) {
+            return second;
+        }
+        if (second.isEmpty()) {
+            return first;
+        }
+        List<T> all = new ArrayList<>(first);
+        all.addAll(second);
+        return all;
+    }
+
+    // Scanning
+
+    private boolean atEnd() {
+        return position >= source.length();
+    }
+
+    // Next significant character, or 0 at the end of the document
+    private char peek() {
+        skipIgnored();
+        return atEnd() ? 0 : source.charAt(position);
+    }
+
+    private void skipIgnored() {
+        while (!atEnd()) {
+            char c = source.charAt(position);
+            if (c == '#') {
+                while (!atEnd() && source.charAt(position) != '\n' && source.charAt(position) != '\r') {
+                    position++;
+                }
+            } else if (Character.isWhitespace(c) || c == ',' || c == '\uFEFF') {
+                position++;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void expect(char expected) {
+        char c = peek();
+        if (c != expected) {
+            throw error("Expected \"" + expected + "\", found " + describe(c));
+        }
+        position++;
+    }
+
+    private void expectKeyword(String keyword) {
+        int start = position;
+        String name = name();
+        if (!name.equals(keyword)) {
+            position = start;
+            throw error("Expected \"" + keyword + "\", found \"" + name + "\"");
+        }
+    }
+
+    private void spread() {
+        skipIgnored();
+        if (!source.startsWith("...", position)) {
+            throw error("Expected \"...\"");
+        }
+        position += 3;
+    }
+
+    private String name() {
+        char c = peek();
+        if (!(c == '_' || Character.isLetter(c))) {
+            throw error("Expected Name, found " + describe(c));
+        }
+        int start = position;
+        while (!atEnd() && (source.charAt(position) == '_' || Character.isLetterOrDigit(source.charAt(position)))) {
+            position++;
+        }
+        return source.substring(start, position);
+    }
+
+    private JsonNode number() {
+        int start = position;
+        if (source.charAt(position) == '-') {
+            position++;
+        }
+        boolean integer = true;
+        while (!atEnd()) {
+            char c = source.charAt(position);
+            if (Character.isDigit(c)) {
+                position++;
+            } else if (c == '.' || c == 'e' || c == 'E'
+                    || (c == '+' || c == '-') && (source.charAt(position - 1) == 'e' || source.charAt(position - 1) == 'E')) {
+                integer = false;
+                position++;
+            } else {
+                break;
+            }
+        }
+        String text = source.substring(start, position);
+        try {
+            if (integer) {
+                BigInteger value = new BigInteger(text);
+                return value.bitLength() < 64 ? NODES.numberNode(value.longValue()) : NODES.numberNode(value);
+            }
+            return NODES.numberNode(new BigDecimal(text));
+        } catch (NumberFormatException e) {
+            position = start;
+            throw error("Invalid number \"" + text + "\"");
+        }
+    }
+
+    private String string() {
+        if (source.startsWith("\"\"\"", position)) {
+            return blockString();
+        }
+        position++;
+        StringBuilder value = new StringBuilder();
+        while (!atEnd()) {
+            char c = source.charAt(position++);
+            if (c == '"') {
+                return value.toString();
+            }
+            if (c == '\n' || c == '\r') {
+                break;
+            }
+            if (c != '\\') {
+                value.append(c);
+                continue;
+            }
+            if (atEnd()) {
+                break;
+            }
+            char escaped = source.charAt(position++);
+            switch (escaped) {
+                case 'n' -> value.append('\n');
+                case 't' -> value.append('\t');
+                case 'r' -> value.append('\r');
+                case 'b' -> value.append('\b');
+                case 'f' -> value.append('\f');
+                case 'u' -> {
+                    if (position + 4 > source.length()) {
+                        throw error("Invalid Unicode escape sequence");
+                    }
+                    try {
+                        value.append((char) Integer.parseInt(source.substring(position, position + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw error("Invalid Unicode escape sequence");
+                    }
+                    position += 4;
+                }
+                default -> value.append(escaped);
+            }
+        }
+        throw error("Unterminated string");
+    }
+
+    private String blockString() {
+        position += 3;
+        int end = source.indexOf("\"\"\"", position);
+        if (end < 0) {
+            throw error("Unterminated string");
+        }
+        String raw = source.substring(position, end);
+        position = end + 3;
+        // Common indentation and blank first/last lines are not part of the value
+        List<String> lines = new ArrayList<>(List.of(raw.replace("\\\"\"\"", "\"\"\"").split("\r\n|\n|\r", -1)));
+        int indent = Integer.MAX_VALUE;
+        for (int i = 1; i < lines.size(); i++) {
+            String line = lines.get(i);
+            int leading = line.length() - line.stripLeading().length();
+            if (leading < line.length()) {
+                indent = Math.min(indent, leading);
+            }
+        }
+        if (indent != Integer.MAX_VALUE) {
+            for (int i = 1; i < lines.size(); i++) {
+                String line = lines.get(i);
+                lines.set(i, line.length() >= indent ? line.substring(indent) : "");
+            }
+        }
+        while (!lines.isEmpty() && lines.get(0).isBlank()) {
+            lines.remove(0);
+        }
+        while (!lines.isEmpty() && lines.get(lines.size() - 1).isBlank()) {
+            lines.remove(lines.size() - 1);
+        }
+        return String.join("\n", lines);
+    }
+
+    private String describe(char c) {
+        return c == 0 ? "<EOF>" : "\"" + c + "\"";
+    }
+
+    private GraphQLSyntaxException error(String message) {
+        int line = 1;
+        int column = 1;
+        for (int i = 0; i < Math.min(position, source.length()); i++) {
+            if (source.charAt(i) == '\n') {
+                line++;
+                column = 1;
+            } else {
+                column++;
+            }
+        }
+        return new GraphQLSyntaxException("Syntax Error: " + message + " (line " + line + ", column " + column + ")");
+    }
+}
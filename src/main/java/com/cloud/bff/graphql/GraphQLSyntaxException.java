@@ -0,0 +1,11 @@
+package com.cloud.bff.graphql;
+
+/**
+ * A GraphQL document that cannot be parsed, with the line and column where parsing stopped.
+ */
+public class GraphQLSyntaxException extends RuntimeException {
+
+    public GraphQLSyntaxException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,118 @@
+package com.cloud.bff.graphql;
+
+import com.cloud.bff.config.GraphQLProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Bounded cache from query text, with insignificant whitespace collapsed, to its
+ * {@link OperationPlan}, so a repeated query skips JSON unwrapping, clean-up and the
+ * routing checks. Analysis time is published as bff.graphql.analysis.time, tagged by
+ * endpoint and by whether the plan was cached; each hit also adds the difference from
+ * the average miss to bff.graphql.analysis.saved. Plans that are not
+ * {@link OperationPlan#isCacheable() cacheable} are analysed on every request and
+ * neither they nor their query text are kept.
+ */
+@Component
+@EnableConfigurationProperties(GraphQLProperties.class)
+public class OperationCache {
+
+    private final Cache<String, OperationPlan> plans;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<String, Meters> meters = new ConcurrentHashMap<>();
+
+    public OperationCache(GraphQLProperties properties, MeterRegistry meterRegistry) {
+        this.plans = Caffeine.newBuilder()
+                .maximumSize(properties.getOperationCache().getMaximumSize())
+                .recordStats()
+                .build();
+        this.meterRegistry = meterRegistry;
+        CaffeineCacheMetrics.monitor(meterRegistry, plans, "graphql.operations");
+    }
+
+    /**
+     * The plan for {@code query} on {@code endpoint}, analysed from it by {@code analyse}
+     * the first time it is seen.
+     */
+    public OperationPlan get(String endpoint, String query, Function<String, OperationPlan> analyse) {
+        Meters endpointMeters = meters.computeIfAbsent(endpoint, this::register);
+        long start = System.nanoTime();
+        String key = endpoint + ' ' + normalize(query);
+        OperationPlan plan = plans.getIfPresent(key);
+        if (plan != null) {
+            long elapsed = System.nanoTime() - start;
+            endpointMeters.hit.record(elapsed, TimeUnit.NANOSECONDS);
+            double saved = endpointMeters.miss.mean(TimeUnit.SECONDS) - elapsed / 1e9;
+            if (saved > 0) {
+                endpointMeters.saved.increment(saved);
+            }
+            return plan;
+        }
+
+        plan = analyse.apply(query);
+        if (plan.isCacheable()) {
+            plans.put(key, plan);
+        }
+        endpointMeters.miss.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return plan;
+    }
+
+    // Runs of whitespace outside string values become one space; nothing else changes
+    static String normalize(String query) {
+        StringBuilder normalized = new StringBuilder(query.length());
+        boolean inString = false;
+        boolean pendingSpace = false;
+        for (int i = 0; i < query.length(); i++) {
+            char c = query.charAt(i);
+            if (inString) {
+                normalized.append(c);
+                if (c == '\\' && i + 1 < query.length()) {
+                    normalized.append(query.charAt(++i));
+                } else if (c == '"') {
+                    inString = false;
+                }
+            } else if (Character.isWhitespace(c)) {
+                pendingSpace = normalized.length() > 0;
+            } else {
+                if (pendingSpace) {
+                    normalized.append(' ');
+                    pendingSpace = false;
+                }
+                inString = c == '"';
+                normalized.append(c);
+            }
+        }
+        return normalized.toString();
+    }
+
+    private Meters register(String endpoint) {
+        return new Meters(
+                analysisTimer(endpoint, "hit"),
+                analysisTimer(endpoint, "miss"),
+                Counter.builder("bff.graphql.analysis.saved")
+                        .description("Estimated query analysis time saved by cached plans")
+                        .baseUnit("seconds")
+                        .tag("endpoint", endpoint)
+                        .register(meterRegistry));
+    }
+
+    private Timer analysisTimer(String endpoint, String result) {
+        return Timer.builder("bff.graphql.analysis.time")
+                .description("Time spent turning a GraphQL request into an operation plan")
+                .tags("endpoint", endpoint, "result", result)
+                .register(meterRegistry);
+    }
+
+    private record Meters(Timer hit, Timer miss, Counter saved) {
+    }
+}
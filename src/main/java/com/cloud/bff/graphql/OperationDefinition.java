@@ -0,0 +1,70 @@
+package com.cloud.bff.graphql;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One query or mutation of a document: its root fields and the default values of
+ * its variables.
+ */
+public class OperationDefinition {
+
+    public enum Type { QUERY, MUTATION }
+
+    private final Type type;
+    private final String name;
+    private final Map<String, JsonNode> variableDefaults;
+    private final List<Field> selections;
+
+    public OperationDefinition(Type type, String name, Map<String, JsonNode> variableDefaults, List<Field> selections) {
+        this.type = type;
+        this.name = name;
+        this.variableDefaults = variableDefaults;
+        this.selections = selections;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<Field> getSelections() {
+        return selections;
+    }
+
+    /**
+     * Whether the document itself carries values this operation sends upstream: literal
+     * arguments anywhere in its selections, or defaults of its variables. A mutation that
+     * does holds the data it writes, such as passwords, in its text.
+     */
+    public boolean hasInlineValues() {
+        return !variableDefaults.isEmpty() || hasInlineArguments(selections);
+    }
+
+    private static boolean hasInlineArguments(List<Field> fields) {
+        for (Field field : fields) {
+            if (field.getArguments().values().stream().anyMatch(Value::isInline)
+                    || hasInlineArguments(field.getSelections())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Request variables over the declared defaults
+    public ObjectNode variables(JsonNode provided) {
+        ObjectNode variables = JsonNodeFactory.instance.objectNode();
+        variableDefaults.forEach(variables::set);
+        if (provided != null && provided.isObject()) {
+            variables.setAll((ObjectNode) provided);
+        }
+        return variables;
+    }
+}
@@ -0,0 +1,423 @@
+package com.cloud.bff.graphql;
+
+import com.cloud.bff.models.PageModel;
+import com.cloud.bff.models.ResponseModel;
+import com.cloud.bff.models.RoleModel;
+import com.cloud.bff.models.UserModel;
+import com.cloud.bff.services.PageService;
+import com.cloud.bff.services.ReactiveRoleService;
+import com.cloud.bff.services.ReactiveUserService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMember;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Runs a parsed operation against the role and user services. Root fields are looked
+ * up by name, the fields of a query run concurrently while mutations run in order,
+ * by-id fields of one query share a per-request {@link DataLoader}, and
+ * every result is projected onto its selection set, so only the requested fields are
+ * serialized and aliases name the fields of the response.
+ */
+@Component
+public class OperationExecutor {
+
+    private static final Set<String> PAGE_FIELDS = Set.of("items", "nextCursor", "hasNextPage", "__typename");
+
+    private final ReactiveRoleService roleService;
+    private final ReactiveUserService userService;
+    private final PageService pageService;
+    private final ObjectMapper objectMapper;
+    private final Logger logger = LoggerFactory.getLogger(OperationExecutor.class);
+
+    private final Map<Class<?>, Map<String, AnnotatedMember>> modelProperties = new ConcurrentHashMap<>();
+    private final Map<String, RootField> queries = new LinkedHashMap<>();
+    private final Map<String, RootField> mutations = new LinkedHashMap<>();
+
+    public OperationExecutor(ReactiveRoleService roleService, ReactiveUserService userService,
+                             PageService pageService, ObjectMapper objectMapper) {
+        this.roleService = roleService;
+        this.userService = userService;
+        this.pageService = pageService;
+        this.objectMapper = objectMapper;
+
+        RootField roles = new RootField("Role", (arguments, loaders) ->
+                arguments.containsKey("first") || arguments.containsKey("after")
+                        ? Mono.defer(() -> pageService.getRolesPage(integer(arguments.get("first")),
+                                text(arguments.get("after"))))
+                        : Mono.defer(roleService::getRoles));
+        RootField users = new RootField("User", (arguments, loaders) ->
+                arguments.containsKey("first") || arguments.containsKey("after")
+                        ? Mono.defer(() -> pageService.getUsersPage(integer(arguments.get("first")),
+                                text(arguments.get("after"))))
+                        : Mono.defer(userService::getUsers));
+        RootField role = new RootField("Role", (arguments, loaders) -> withId(arguments, "Invalid ID in GraphQL query",
+                id -> loaders.roles().load(id)));
+        RootField user = new RootField("User", (arguments, loaders) -> withId(arguments, "Invalid ID in GraphQL query",
+                id -> loaders.users().load(id)));
+
+        queries.put("roles", roles);
+        queries.put("getAllRoles", roles);
+        queries.put("users", users);
+        queries.put("getAllUsers", users);
+        queries.put("role", role);
+        queries.put("getRoleById", role);
+        queries.put("user", user);
+        queries.put("getUserById", user);
+
+        mutations.put("createRole", new RootField("Role",
+                (arguments, loaders) -> Mono.defer(() -> roleService.createRole(toRole(arguments)))));
+        mutations.put("updateRole", new RootField("Role", (arguments, loaders) -> withId(arguments,
+                "Invalid ID in GraphQL query", id -> {
+                    RoleModel model = toRole(arguments);
+                    model.setId(id);
+                    return Mono.defer(() -> roleService.updateRole(model));
+                })));
+        mutations.put("deleteRole", new RootField("Role", (arguments, loaders) -> withId(arguments,
+                "Invalid ID in delete mutation", id -> Mono.defer(() -> roleService.deleteRole(id)))));
+        mutations.put("createUser", new RootField("User",
+                (arguments, loaders) -> Mono.defer(() -> userService.addUser(toUser(arguments)))));
+        mutations.put("updateUser", new RootField("User", (arguments, loaders) -> withId(arguments,
+                "Invalid ID in GraphQL query", id -> {
+                    UserModel model = toUser(arguments);
+                    model.setId(id);
+                    return Mono.defer(() -> userService.updateUser(model));
+                })));
+        mutations.put("deleteUser", new RootField("User", (arguments, loaders) -> withId(arguments,
+                "Invalid ID in delete mutation", id -> Mono.defer(() -> userService.deleteUser(id)))));
+    }
+
+    private interface Resolver {
+        Mono<ResponseModel> resolve(Map<String, JsonNode> arguments, Loaders loaders);
+    }
+
+    private record RootField(String type, Resolver resolver) {
+    }
+
+    // One loader per entity and request: repeated ids share a single service call
+    private record Loaders(DataLoader<Long, ResponseModel> users, DataLoader<Long, ResponseModel> roles) {
+    }
+
+    public Mono<ResponseModel> execute(Document document, ExecutionInput input) {
+        OperationDefinition operation = document.getOperation(input.operationName());
+        if (operation == null) {
+            return Mono.just(badRequest("Invalid GraphQL operation", input.operationName() == null
+                    ? "Must provide operation name if query contains multiple operations"
+                    : "Unknown operation named \"" + input.operationName() + "\""));
+        }
+
+        ObjectNode variables = operation.variables(input.variables());
+        Map<String, RootField> rootFields = operation.getType() == OperationDefinition.Type.MUTATION ? mutations : queries;
+        List<Field> fields = new ArrayList<>();
+        for (Field field : operation.getSelections()) {
+            if (!field.isIncluded(variables)) {
+                continue;
+            }
+            // Unknown fields reject the whole operation before any upstream call
+            if (!field.getName().equals("__typename") && !rootFields.containsKey(field.getName())) {
+                logger.warn("Unsupported GraphQL field: {}", field.getName());
+                return Mono.just(badRequest("Invalid GraphQL operation",
+                        "Cannot query field \"" + field.getName() + "\" on type \""
+                                + (rootFields == mutations ? "Mutation" : "Query") + "\""));
+            }
+            fields.add(field);
+        }
+
+        Loaders loaders = new Loaders(new DataLoader<>(ids -> loadAll(ids, userService::getUserById)),
+                new DataLoader<>(ids -> loadAll(ids, roleService::getRoleById)));
+
+        // Resolving registers every by-id load, so one dispatch answers all of them
+        Map<Field, Mono<ResponseModel>> results = new LinkedHashMap<>();
+        for (Field field : fields) {
+            RootField rootField = rootFields.get(field.getName());
+            results.put(field, rootField == null
+                    ? Mono.just(typename(operation))
+                    : rootField.resolver().resolve(arguments(field, variables), loaders));
+        }
+
+        Flux<Map.Entry<Field, ResponseModel>> resolved;
+        if (operation.getType() == OperationDefinition.Type.MUTATION) {
+            // Mutations run one after another, in the order they were written
+            resolved = Flux.fromIterable(results.entrySet()).concatMap(this::complete);
+        } else {
+            // Query fields are independent: all of them are in flight at once, and the response keeps their order
+            resolved = Flux.mergeSequential(Flux.fromIterable(results.entrySet()).map(this::complete));
+        }
+
+        return Mono.zip(resolved.collectList(),
+                        Mono.when(loaders.users().dispatch(), loaders.roles().dispatch()).thenReturn(true),
+                        (completed, dispatched) -> completed)
+                .map(completed -> assemble(completed, rootFields, variables));
+    }
+
+    private Mono<Map.Entry<Field, ResponseModel>> complete(Map.Entry<Field, Mono<ResponseModel>> result) {
+        return result.getValue()
+                .defaultIfEmpty(notFound(result.getKey().getAlias()))
+                .map(response -> Map.entry(result.getKey(), response));
+    }
+
+    private ResponseModel assemble(List<Map.Entry<Field, ResponseModel>> results, Map<String, RootField> rootFields,
+                                   JsonNode variables) {
+        // A single plain field keeps the response shape of the REST endpoints
+        if (results.size() == 1 && !results.get(0).getKey().isAliased()) {
+            Field field = results.get(0).getKey();
+            ResponseModel response = results.get(0).getValue();
+            if (response.getStatus() >= 300) {
+                return response;
+            }
+            ResponseModel responseModel = new ResponseModel();
+            responseModel.setStatus(response.getStatus());
+            responseModel.setMessage(response.getMessage());
+            responseModel.setError(response.getError());
+            responseModel.setStale(response.getStale());
+            responseModel.setData(project(response.getData(), field, rootFields, variables));
+            return responseModel;
+        }
+
+        Map<String, Object> data = new LinkedHashMap<>();
+        List<String> errors = new ArrayList<>();
+        int failedStatus = 0;
+        boolean stale = false;
+
+        for (Map.Entry<Field, ResponseModel> result : results) {
+            Field field = result.getKey();
+            ResponseModel response = result.getValue();
+            if (response.getStatus() < 300) {
+                data.put(field.getAlias(), project(response.getData(), field, rootFields, variables));
+                stale |= Boolean.TRUE.equals(response.getStale());
+            } else {
+                data.put(field.getAlias(), null);
+                errors.add(field.getAlias() + ": " + (response.getError() != null ? response.getError() : response.getMessage()));
+                if (failedStatus == 0) {
+                    failedStatus = response.getStatus();
+                }
+            }
+        }
+
+        // Partial results keep a 200; only an operation where every field failed takes the failure status
+        ResponseModel responseModel = new ResponseModel();
+        responseModel.setData(data);
+        responseModel.setStatus(!results.isEmpty() && errors.size() == results.size() ? failedStatus : 200);
+        responseModel.setMessage(errors.isEmpty() ? "Success" : "Completed with errors");
+        responseModel.setError(errors.isEmpty() ? null : String.join("; ", errors));
+        responseModel.setStale(stale ? Boolean.TRUE : null);
+        return responseModel;
+    }
+
+    private Object project(Object data, Field field, Map<String, RootField> rootFields, JsonNode variables) {
+        RootField rootField = rootFields.get(field.getName());
+        if (data == null || rootField == null || field.getSelections().isEmpty()) {
+            return data;
+        }
+        if (data instanceof PageModel<?> page) {
+            return projectPage(page, field.getSelections(), rootField.type(), variables);
+        }
+        return projectValue(data, field.getSelections(), rootField.type(), variables);
+    }
+
+    private JsonNode projectPage(PageModel<?> page, List<Field> selections, String type, JsonNode variables) {
+        // Selecting item fields directly on a page, e.g. roles(first: 10) { id }, applies them to the items
+        if (selections.stream().noneMatch(field -> PAGE_FIELDS.contains(field.getName()))) {
+            ObjectNode projected = objectMapper.createObjectNode();
+            properties(PageModel.class).forEach((name, accessor) -> projected.set(name, name.equals("items")
+                    ? projectValue(page.getItems(), selections, type, variables)
+                    : objectMapper.valueToTree(accessor.getValue(page))));
+            return projected;
+        }
+
+        ObjectNode projected = objectMapper.createObjectNode();
+        for (Field field : selections) {
+            if (!field.isIncluded(variables)) {
+                continue;
+            }
+            if (field.getName().equals("__typename")) {
+                projected.put(field.getAlias(), type + "Page");
+            } else if (field.getName().equals("items")) {
+                projected.set(field.getAlias(), projectValue(page.getItems(), field.getSelections(), type, variables));
+            } else {
+                projected.set(field.getAlias(), objectMapper.valueToTree(property(page, field.getName())));
+            }
+        }
+        return projected;
+    }
+
+    // Walks the model itself and converts only what is selected; other properties, passwords included, are never read
+    private JsonNode projectValue(Object value, List<Field> selections, String type, JsonNode variables) {
+        if (value instanceof JsonNode node) {
+            return project(node, selections, type, variables);
+        }
+        if (value == null || selections.isEmpty() || BeanUtils.isSimpleValueType(value.getClass())) {
+            return objectMapper.valueToTree(value);
+        }
+        if (value instanceof Iterable<?> || value instanceof Object[]) {
+            ArrayNode projected = objectMapper.createArrayNode();
+            Iterable<?> items = value instanceof Object[] array ? Arrays.asList(array) : (Iterable<?>) value;
+            items.forEach(item -> projected.add(projectValue(item, selections, type, variables)));
+            return projected;
+        }
+
+        ObjectNode projected = objectMapper.createObjectNode();
+        for (Field field : selections) {
+            if (!field.isIncluded(variables)) {
+                continue;
+            }
+            if (field.getName().equals("__typename")) {
+                projected.put(field.getAlias(), type);
+            } else {
+                projected.set(field.getAlias(),
+                        projectValue(property(value, field.getName()), field.getSelections(), null, variables));
+            }
+        }
+        return projected;
+    }
+
+    private Object property(Object value, String name) {
+        if (value instanceof Map<?, ?> map) {
+            return map.get(name);
+        }
+        AnnotatedMember accessor = properties(value.getClass()).get(name);
+        return accessor != null ? accessor.getValue(value) : null;
+    }
+
+    // The properties Jackson would serialize, by their JSON name, found once per model class
+    private Map<String, AnnotatedMember> properties(Class<?> modelType) {
+        return modelProperties.computeIfAbsent(modelType, type -> {
+            Map<String, AnnotatedMember> properties = new LinkedHashMap<>();
+            for (BeanPropertyDefinition property : objectMapper.getSerializationConfig()
+                    .introspect(objectMapper.constructType(type)).findProperties()) {
+                if (property.getAccessor() != null) {
+                    properties.put(property.getName(), property.getAccessor());
+                }
+            }
+            return properties;
+        });
+    }
+
+    private JsonNode project(JsonNode value, List<Field> selections, String type, JsonNode variables) {
+        if (value == null || selections.isEmpty()) {
+            return value;
+        }
+        if (value.isArray()) {
+            ArrayNode projected = objectMapper.createArrayNode();
+            value.forEach(item -> projected.add(project(item, selections, type, variables)));
+            return projected;
+        }
+        if (!value.isObject()) {
+            return value;
+        }
+
+        ObjectNode projected = objectMapper.createObjectNode();
+        for (Field field : selections) {
+            if (!field.isIncluded(variables)) {
+                continue;
+            }
+            if (field.getName().equals("__typename")) {
+                projected.put(field.getAlias(), type);
+            } else {
+                projected.set(field.getAlias(), project(value.get(field.getName()), field.getSelections(), null, variables));
+            }
+        }
+        return projected;
+    }
+
+    // Argument values for this request; object arguments such as input: {...} are flattened into the rest
+    private Map<String, JsonNode> arguments(Field field, JsonNode variables) {
+        Map<String, JsonNode> arguments = new LinkedHashMap<>();
+        field.getArguments().forEach((name, value) -> {
+            JsonNode resolved = value.resolve(variables);
+            if (resolved.isObject()) {
+                resolved.fields().forEachRemaining(entry -> arguments.put(entry.getKey(), entry.getValue()));
+            } else {
+                arguments.put(name, resolved);
+            }
+        });
+        return arguments;
+    }
+
+    private Mono<ResponseModel> withId(Map<String, JsonNode> arguments, String message,
+                                       Function<Long, Mono<ResponseModel>> resolve) {
+        String id = text(arguments.get("id"));
+        try {
+            Long parsed = Long.parseLong(id != null ? id.trim() : "");
+            return resolve.apply(parsed);
+        } catch (NumberFormatException e) {
+            logger.error("Error extracting ID from query: {}", id);
+            return Mono.just(badRequest(message, "Could not parse ID: " + id));
+        }
+    }
+
+    private RoleModel toRole(Map<String, JsonNode> arguments) {
+        RoleModel role = new RoleModel();
+        role.setTitle(text(arguments.get("title")));
+        role.setDescription(text(arguments.get("description")));
+        return role;
+    }
+
+    private UserModel toUser(Map<String, JsonNode> arguments) {
+        UserModel user = new UserModel();
+        user.setEmail(text(arguments.get("email")));
+        user.setPassword(text(arguments.get("password")));
+        for (String name : List.of("rol", "role", "rolId", "roleId")) {
+            if (text(arguments.get(name)) != null) {
+                user.setRol(text(arguments.get(name)));
+                break;
+            }
+        }
+        return user;
+    }
+
+    private static String text(JsonNode value) {
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    private static Integer integer(JsonNode value) {
+        return value == null || value.isNull() ? null : value.asInt();
+    }
+
+    private Mono<Map<Long, ResponseModel>> loadAll(Set<Long> ids, Function<Long, Mono<ResponseModel>> load) {
+        return Flux.fromIterable(ids)
+                .flatMap(id -> load.apply(id).map(response -> Map.entry(id, response)))
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+    }
+
+    private ResponseModel typename(OperationDefinition operation) {
+        ResponseModel responseModel = new ResponseModel();
+        responseModel.setStatus(200);
+        responseModel.setMessage("Success");
+        responseModel.setData(operation.getType() == OperationDefinition.Type.MUTATION ? "Mutation" : "Query");
+        return responseModel;
+    }
+
+    private ResponseModel notFound(String alias) {
+        ResponseModel responseModel = new ResponseModel();
+        responseModel.setStatus(404);
+        responseModel.setMessage("Not found");
+        responseModel.setError("No result for field " + alias);
+        return responseModel;
+    }
+
+    private ResponseModel badRequest(String message, String error) {
+        ResponseModel responseModel = new ResponseModel();
+        responseModel.setStatus(400);
+        responseModel.setMessage(message);
+        responseModel.setError(error);
+        return responseModel;
+    }
+}
@@ -0,0 +1,49 @@
+package com.cloud.bff.graphql;
+
+import com.cloud.bff.models.ResponseModel;
+import reactor.core.publisher.Mono;
+
+/**
+ * The outcome of analysing one GraphQL operation: the resolver it routes to, with
+ * its arguments already extracted. Plans are cached and shared between requests, so
+ * executing one must not change it; services only read the models they are given.
+ * What differs between requests, such as variables, comes in the {@link ExecutionInput}.
+ */
+@FunctionalInterface
+public interface OperationPlan {
+
+    Mono<ResponseModel> execute(ExecutionInput input);
+
+    // Static cost of the named operation, counted against a batch's budget; plans that call no upstream cost nothing
+    default int cost(String operationName) {
+        return 0;
+    }
+
+    // Whether the plan may be kept for later requests with the same text
+    default boolean isCacheable() {
+        return true;
+    }
+
+    /**
+     * A plan used for this request only. For plans holding the values a mutation writes,
+     * passwords included, which must not outlive the request.
+     */
+    static OperationPlan uncached(OperationPlan plan) {
+        return new OperationPlan() {
+            @Override
+            public Mono<ResponseModel> execute(ExecutionInput input) {
+                return plan.execute(input);
+            }
+
+            @Override
+            public int cost(String operationName) {
+                return plan.cost(operationName);
+            }
+
+            @Override
+            public boolean isCacheable() {
+                return false;
+            }
+        };
+    }
+}
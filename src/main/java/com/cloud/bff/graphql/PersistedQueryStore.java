@@ -0,0 +1,65 @@
+package com.cloud.bff.graphql;
+
+import com.cloud.bff.config.GraphQLProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Automatic persisted queries: operations are stored by the SHA-256 of their text as
+ * their analysed {@link OperationPlan}, so a client that sends only the hash skips both
+ * the upload of the query and its analysis. A hash is registered the first time it comes with its
+ * query, and only if the query really hashes to it. Hits and misses are published as
+ * cache.gets with cache=graphql.persistedQueries.
+ */
+@Component
+@EnableConfigurationProperties(GraphQLProperties.class)
+public class PersistedQueryStore {
+
+    private final boolean enabled;
+    private final Cache<String, OperationPlan> queries;
+
+    public PersistedQueryStore(GraphQLProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.getPersistedQueries().isEnabled();
+        this.queries = Caffeine.newBuilder()
+                .maximumSize(properties.getPersistedQueries().getMaximumSize())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, queries, "graphql.persistedQueries");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // The plan stored for the hash, or null when the client has to send the query
+    public OperationPlan get(String sha256Hash) {
+        return queries.getIfPresent(sha256Hash.toLowerCase());
+    }
+
+    // Stores the plan of query; false when query does not hash to sha256Hash
+    public boolean register(String sha256Hash, String query, OperationPlan plan) {
+        if (!sha256(query).equalsIgnoreCase(sha256Hash)) {
+            return false;
+        }
+        queries.put(sha256Hash.toLowerCase(), plan);
+        return true;
+    }
+
+    private String sha256(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.cloud.bff.graphql;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * An argument value as written in the document. Literals resolve to themselves;
+ * variables, also inside lists and objects, resolve against the request variables.
+ */
+@FunctionalInterface
+public interface Value {
+
+    JsonNode resolve(JsonNode variables);
+
+    // Whether the value, or any part of it, is written in the document rather than taken from the variables
+    default boolean isInline() {
+        return true;
+    }
+}
@@ -0,0 +1,34 @@
+package com.cloud.bff.models;
+
+import java.util.List;
+
+public class PageModel<T> {
+
+    private List<T> items;
+    private String nextCursor;
+    private boolean hasNextPage;
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasNextPage() {
+        return hasNextPage;
+    }
+
+    public void setHasNextPage(boolean hasNextPage) {
+        this.hasNextPage = hasNextPage;
+    }
+}
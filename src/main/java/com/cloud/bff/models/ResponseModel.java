@@ -1,10 +1,15 @@
 package com.cloud.bff.models;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 public class ResponseModel {
     private int status;
     private String message;
     private Object data;
     private String error;
+    // Only set when the data comes from a cached copy past its TTL
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean stale;
 
     public int getStatus() {
         return status;
@@ -37,4 +42,12 @@ public class ResponseModel {
     public void setError(String error) {
         this.error = error;
     }
+
+    public Boolean getStale() {
+        return stale;
+    }
+
+    public void setStale(Boolean stale) {
+        this.stale = stale;
+    }
 }
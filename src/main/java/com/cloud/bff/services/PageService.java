@@ -0,0 +1,11 @@
+package com.cloud.bff.services;
+
+import com.cloud.bff.models.ResponseModel;
+import reactor.core.publisher.Mono;
+
+public interface PageService {
+
+    public Mono<ResponseModel> getUsersPage(Integer limit, String cursor);
+
+    public Mono<ResponseModel> getRolesPage(Integer limit, String cursor);
+}
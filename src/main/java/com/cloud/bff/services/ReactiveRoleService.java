@@ -0,0 +1,21 @@
+package com.cloud.bff.services;
+
+import com.cloud.bff.models.ResponseModel;
+import com.cloud.bff.models.RoleModel;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveRoleService {
+
+    public Mono<ResponseModel> getRoles();
+
+    public Flux<RoleModel> streamRoles();
+
+    public Mono<ResponseModel> getRoleById(Long id);
+
+    public Mono<ResponseModel> createRole(RoleModel role);
+
+    public Mono<ResponseModel> updateRole(RoleModel role);
+
+    public Mono<ResponseModel> deleteRole(Long id);
+}
@@ -0,0 +1,21 @@
+package com.cloud.bff.services;
+
+import com.cloud.bff.models.ResponseModel;
+import com.cloud.bff.models.UserModel;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveUserService {
+
+    public Mono<ResponseModel> getUsers();
+
+    public Flux<UserModel> streamUsers();
+
+    public Mono<ResponseModel> getUserById(Long id);
+
+    public Mono<ResponseModel> addUser(UserModel user);
+
+    public Mono<ResponseModel> updateUser(UserModel user);
+
+    public Mono<ResponseModel> deleteUser(Long id);
+}
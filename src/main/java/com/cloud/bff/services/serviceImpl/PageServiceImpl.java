@@ -0,0 +1,146 @@
+package com.cloud.bff.services.serviceImpl;
+
+import com.cloud.bff.models.PageModel;
+import com.cloud.bff.models.ResponseModel;
+import com.cloud.bff.models.RoleModel;
+import com.cloud.bff.models.UserModel;
+import com.cloud.bff.services.PageService;
+import com.cloud.bff.services.ReactiveRoleService;
+import com.cloud.bff.services.ReactiveUserService;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Keyset pagination over the cached, id-ordered listings. A cursor is the opaque
+ * encoding of the last id on the previous page, so each page is a binary search
+ * plus a copy of at most {@code limit} elements, however long the listing is. Items
+ * without an id sort last and have no key, so a page ending among them is followed
+ * by its position in the listing instead.
+ */
+@Service
+public class PageServiceImpl implements PageService {
+
+    private static final int DEFAULT_LIMIT = 20;
+    private static final int MAX_LIMIT = 100;
+    private static final String CURSOR_PREFIX = "id:";
+    private static final String POSITION_PREFIX = "pos:";
+
+    private final ReactiveUserService userService;
+    private final ReactiveRoleService roleService;
+
+    public PageServiceImpl(ReactiveUserService userService, ReactiveRoleService roleService) {
+        this.userService = userService;
+        this.roleService = roleService;
+    }
+
+    @Override
+    public Mono<ResponseModel> getUsersPage(Integer limit, String cursor) {
+        return page(userService.getUsers(), UserModel::getId, limit, cursor);
+    }
+
+    @Override
+    public Mono<ResponseModel> getRolesPage(Integer limit, String cursor) {
+        return page(roleService.getRoles(), RoleModel::getId, limit, cursor);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Mono<ResponseModel> page(Mono<ResponseModel> listing, Function<T, Long> idOf,
+                                         Integer limit, String cursor) {
+        int pageSize = limit != null ? limit : DEFAULT_LIMIT;
+        if (pageSize < 1 || pageSize > MAX_LIMIT) {
+            return Mono.just(badRequest("Invalid page size", "limit must be between 1 and " + MAX_LIMIT));
+        }
+
+        Cursor after;
+        try {
+            after = decodeCursor(cursor);
+        } catch (IllegalArgumentException e) {
+            return Mono.just(badRequest("Invalid cursor", e.getMessage()));
+        }
+
+        return listing.map(response -> {
+            if (response.getStatus() != 200 || !(response.getData() instanceof List)) {
+                return response;
+            }
+
+            List<T> items = (List<T>) response.getData();
+            int from = after == null ? 0
+                    : after.id() != null ? firstAfter(items, idOf, after.id())
+                    : Math.min(after.position(), items.size());
+            int to = Math.min(items.size(), from + pageSize);
+
+            PageModel<T> page = new PageModel<>();
+            page.setItems(List.copyOf(items.subList(from, to)));
+            page.setHasNextPage(to < items.size());
+            page.setNextCursor(page.isHasNextPage() ? encodeCursor(idOf.apply(items.get(to - 1)), to) : null);
+
+            ResponseModel responseModel = new ResponseModel();
+            responseModel.setData(page);
+            responseModel.setMessage("Success");
+            responseModel.setStatus(200);
+            responseModel.setError(null);
+            responseModel.setStale(response.getStale());
+            return responseModel;
+        });
+    }
+
+    // Listings are sorted by id with null ids last, so the first id greater than the cursor can be bisected
+    private <T> int firstAfter(List<T> items, Function<T, Long> idOf, long after) {
+        int low = 0;
+        int high = items.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            Long id = idOf.apply(items.get(mid));
+            if (id != null && id <= after) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // The last id of the page, or the position after it when that item has no id
+    private String encodeCursor(Long lastId, int next) {
+        String cursor = lastId != null ? CURSOR_PREFIX + lastId : POSITION_PREFIX + next;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Cursor decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        try {
+            if (decoded.startsWith(CURSOR_PREFIX)) {
+                return new Cursor(Long.parseLong(decoded.substring(CURSOR_PREFIX.length())), 0);
+            }
+            if (decoded.startsWith(POSITION_PREFIX)) {
+                int position = Integer.parseInt(decoded.substring(POSITION_PREFIX.length()));
+                if (position >= 0) {
+                    return new Cursor(null, position);
+                }
+            }
+        } catch (NumberFormatException e) {
+            // Reported below like any other unrecognized cursor
+        }
+        throw new IllegalArgumentException("Unrecognized cursor: " + cursor);
+    }
+
+    private ResponseModel badRequest(String message, String error) {
+        ResponseModel responseModel = new ResponseModel();
+        responseModel.setStatus(400);
+        responseModel.setMessage(message);
+        responseModel.setError(error);
+        return responseModel;
+    }
+
+    // Pages follow the id when there is one, else the position in the listing
+    private record Cursor(Long id, int position) {
+    }
+}
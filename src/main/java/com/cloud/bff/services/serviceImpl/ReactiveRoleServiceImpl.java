@@ -0,0 +1,410 @@
+package com.cloud.bff.services.serviceImpl;
+
+import com.cloud.bff.cache.CachedReads;
+import com.cloud.bff.cache.RoleCache;
+import com.cloud.bff.config.UpstreamProperties;
+import com.cloud.bff.models.ResponseModel;
+import com.cloud.bff.models.RoleModel;
+import com.cloud.bff.services.ReactiveRoleService;
+import com.cloud.bff.upstream.BatchingExecutor;
+import com.cloud.bff.upstream.DeadlineExceededException;
+import com.cloud.bff.upstream.GraphQLDocument;
+import com.cloud.bff.upstream.JsonArrayDecoder;
+import com.cloud.bff.upstream.SingleFlight;
+import com.cloud.bff.upstream.UpstreamExecutor;
+import com.cloud.bff.upstream.UpstreamErrorException;
+import com.cloud.bff.upstream.UpstreamUnavailableException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+public class ReactiveRoleServiceImpl implements ReactiveRoleService {
+
+    private static final String GRAPHQL = "graphql";
+    private static final String ROLE_FIELDS = "{ id title description }";
+
+    // Listings are kept in id order so pages can be cut by keyset
+    private static final Comparator<RoleModel> BY_ID =
+            Comparator.comparing(RoleModel::getId, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final WebClient webClient;
+    private final ObjectMapper objectMapper;
+    private final RoleCache roleCache;
+    private final UpstreamExecutor upstreamExecutor;
+    private final SingleFlight<String, ResponseModel> getRolesFlight;
+    private final SingleFlight<Long, ResponseModel> getRoleByIdFlight;
+    private final BatchingExecutor<Long, ResponseModel> getRoleByIdBatch;
+    private final JsonArrayDecoder allRolesDecoder;
+
+    // Constant upstream documents; ids and role fields travel as variables
+    private final GraphQLDocument getAllRolesDocument;
+    private final GraphQLDocument[] getRolesByIdsDocuments;
+    private final GraphQLDocument createRoleDocument;
+    private final GraphQLDocument updateRoleDocument;
+    private final GraphQLDocument deleteRoleDocument;
+
+    public ReactiveRoleServiceImpl(WebClient upstreamWebClient, ObjectMapper objectMapper, RoleCache roleCache,
+                                   UpstreamProperties upstreamProperties, UpstreamExecutor upstreamExecutor,
+                                   MeterRegistry meterRegistry) {
+        this.webClient = upstreamWebClient;
+        this.objectMapper = objectMapper;
+        this.roleCache = roleCache;
+        this.upstreamExecutor = upstreamExecutor;
+        this.getRolesFlight = new SingleFlight<>("roles.getRoles", meterRegistry);
+        this.getRoleByIdFlight = new SingleFlight<>("roles.getRoleById", meterRegistry);
+        this.getRoleByIdBatch = new BatchingExecutor<>("roles.getRoleById",
+                upstreamProperties.getBatch().getMaxSize(), upstreamProperties.getBatch().getWindow(),
+                this::fetchRolesByIds, meterRegistry);
+        this.allRolesDecoder = new JsonArrayDecoder(objectMapper, "data", "getAllRoles");
+
+        this.getAllRolesDocument = new GraphQLDocument(objectMapper, "{ getAllRoles " + ROLE_FIELDS + " }");
+        this.getRolesByIdsDocuments = new GraphQLDocument[upstreamProperties.getBatch().getMaxSize()];
+        for (int size = 1; size <= getRolesByIdsDocuments.length; size++) {
+            getRolesByIdsDocuments[size - 1] = getRolesByIdsDocument(size);
+        }
+        this.createRoleDocument = new GraphQLDocument(objectMapper,
+                "mutation CreateRole($title: String, $description: String) "
+                        + "{ createRole(title: $title, description: $description) }");
+        this.updateRoleDocument = new GraphQLDocument(objectMapper,
+                "mutation UpdateRole($id: ID!, $title: String, $description: String) "
+                        + "{ updateRole(id: $id, title: $title, description: $description) }");
+        this.deleteRoleDocument = new GraphQLDocument(objectMapper,
+                "mutation DeleteRole($id: ID!) { deleteRole(id: $id) }");
+    }
+
+    // One document per batch size: query($id0: ID!, $id1: ID!) { r0: getRoleById(id: $id0) { ... } r1: ... }
+    private GraphQLDocument getRolesByIdsDocument(int size) {
+        StringBuilder variables = new StringBuilder();
+        StringBuilder fields = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            variables.append(i == 0 ? "" : ", ").append("$id").append(i).append(": ID!");
+            fields.append(" r").append(i).append(": getRoleById(id: $id").append(i).append(") ").append(ROLE_FIELDS);
+        }
+        return new GraphQLDocument(objectMapper, "query GetRolesByIds(" + variables + ") {" + fields + " }");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        getRoleByIdBatch.dispose();
+    }
+
+    @Override
+    public Mono<ResponseModel> getRoles() {
+        return CachedReads.serve(roleCache.getAllEntry(), this::success,
+                () -> getRolesFlight.execute("all", this::fetchRoles)
+                        .onErrorResume(e -> Mono.just(errorResponse(e))));
+    }
+
+    private Mono<ResponseModel> fetchRoles() {
+        return Mono.defer(() -> {
+            long generation = roleCache.generation();
+            return upstreamExecutor.read("roles.getRoles", streamAllRoles().collectSortedList(BY_ID))
+                    .map(roles -> {
+                        roleCache.putAll(roles, generation);
+                        return success(roles);
+                    });
+        }).onErrorResume(e -> Mono.just(errorResponse(e)));
+    }
+
+    @Override
+    public Flux<RoleModel> streamRoles() {
+        List<RoleModel> cachedRoles = roleCache.getAll();
+        if (cachedRoles != null) {
+            return Flux.fromIterable(cachedRoles);
+        }
+
+        return streamAllRoles();
+    }
+
+    private Flux<RoleModel> streamAllRoles() {
+        // Decode data.getAllRoles element by element as the response buffers arrive
+        Flux<DataBuffer> body = upstreamExecutor.executeMany(GRAPHQL, webClient.post()
+                .uri("/graphql")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(getAllRolesDocument.body())
+                .retrieve()
+                .bodyToFlux(DataBuffer.class));
+
+        return allRolesDecoder.decode(body).map(this::toRole);
+    }
+
+    @Override
+    public Mono<ResponseModel> getRoleById(Long id) {
+        return CachedReads.serve(roleCache.getEntry(id), this::success,
+                () -> getRoleByIdFlight.execute(id, () -> fetchRoleById(id))
+                        .onErrorResume(e -> Mono.just(errorResponse(e))));
+    }
+
+    private Mono<ResponseModel> fetchRoleById(Long id) {
+        return getRoleByIdBatch.load(id)
+                .onErrorResume(e -> Mono.just(errorResponse(e)));
+    }
+
+    private Mono<Map<Long, ResponseModel>> fetchRolesByIds(Set<Long> ids) {
+        // One document for the whole batch, its ids bound to $id0, $id1, ... and answered under r0, r1, ...
+        Map<String, Long> aliases = new HashMap<>();
+        Map<String, Long> variables = new HashMap<>();
+        for (Long id : ids) {
+            variables.put("id" + aliases.size(), id);
+            aliases.put("r" + aliases.size(), id);
+        }
+        GraphQLDocument document = ids.size() <= getRolesByIdsDocuments.length
+                ? getRolesByIdsDocuments[ids.size() - 1]
+                : getRolesByIdsDocument(ids.size());
+
+        long generation = roleCache.generation();
+        return upstreamExecutor.read("roles.getRoleById", postGraphQL(document.body(variables)))
+                .map(graphqlResponse -> {
+                    Map<Long, ResponseModel> results = new HashMap<>();
+
+                    // Parse the GraphQL response and fan each alias back out to its id
+                    try {
+                        JsonNode rootNode = objectMapper.readTree(graphqlResponse);
+                        JsonNode dataNode = rootNode.path("data");
+                        // Whatever came with upstream errors is answered, but never cached
+                        JsonNode errors = rootNode.path("errors");
+                        boolean failed = errors.isArray() && !errors.isEmpty();
+
+                        aliases.forEach((alias, id) -> {
+                            JsonNode roleNode = dataNode.path(alias);
+                            ResponseModel responseModel = new ResponseModel();
+
+                            if (!roleNode.isMissingNode() && !roleNode.isNull()) {
+                                RoleModel role = toRole(roleNode);
+                                if (!failed) {
+                                    roleCache.put(role, generation);
+                                }
+                                responseModel.setData(role);
+                                responseModel.setMessage("Success");
+                                responseModel.setStatus(200);
+                                responseModel.setError(null);
+                            } else if (failed) {
+                                responseModel.setData(null);
+                                responseModel.setMessage("Role service answered with errors");
+                                responseModel.setStatus(502);
+                                responseModel.setError(errors.toString());
+                            } else {
+                                responseModel.setData(null);
+                                responseModel.setMessage("Role not found");
+                                responseModel.setStatus(404);
+                                responseModel.setError("No role found with id: " + id);
+                            }
+                            results.put(id, responseModel);
+                        });
+                    } catch (JsonProcessingException e) {
+                        for (Long id : ids) {
+                            ResponseModel responseModel = new ResponseModel();
+                            setParseError(responseModel, graphqlResponse, e);
+                            results.put(id, responseModel);
+                        }
+                    }
+
+                    return results;
+                });
+    }
+
+    @Override
+    public Mono<ResponseModel> createRole(RoleModel role) {
+        // Align with Azure Function's RoleMutationResolver: direct arguments
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("title", role.getTitle());
+        variables.put("description", role.getDescription());
+
+        return postGraphQL(createRoleDocument.body(variables))
+                .map(graphqlResponse -> {
+                    ResponseModel responseModel = new ResponseModel();
+
+                    // Parse the GraphQL response, expecting a boolean
+                    try {
+                        JsonNode rootNode = objectMapper.readTree(graphqlResponse);
+                        JsonNode createRoleNode = rootNode.path("data").path("createRole");
+
+                        if (!createRoleNode.isMissingNode() && createRoleNode.isBoolean() && createRoleNode.asBoolean()) {
+                            roleCache.invalidateList();
+                            responseModel.setData(true); // Or role, or null as per preference
+                            responseModel.setMessage("Role created successfully");
+                            responseModel.setStatus(201);
+                            responseModel.setError(null);
+                        } else {
+                            String errorMessage = "Unable to create role.";
+                            if (rootNode.has("errors")) {
+                                errorMessage = rootNode.get("errors").toString();
+                            } else if (!createRoleNode.isMissingNode() && createRoleNode.isBoolean() && !createRoleNode.asBoolean()) {
+                                errorMessage = "Create role operation returned false.";
+                            }
+                            responseModel.setData(graphqlResponse); // Or false
+                            responseModel.setMessage("Error creating role");
+                            responseModel.setStatus(500);
+                            responseModel.setError(errorMessage);
+                        }
+                    } catch (JsonProcessingException e) {
+                        setParseError(responseModel, graphqlResponse, e);
+                    }
+
+                    return responseModel;
+                })
+                .onErrorResume(e -> Mono.just(errorResponse(e)));
+    }
+
+    @Override
+    public Mono<ResponseModel> updateRole(RoleModel role) {
+        // Align with Azure Function's RoleMutationResolver: direct arguments
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("id", String.valueOf(role.getId()));
+        variables.put("title", role.getTitle());
+        variables.put("description", role.getDescription());
+
+        return postGraphQL(updateRoleDocument.body(variables))
+                .map(graphqlResponse -> {
+                    ResponseModel responseModel = new ResponseModel();
+
+                    // Parse the GraphQL response, expecting a boolean
+                    try {
+                        JsonNode rootNode = objectMapper.readTree(graphqlResponse);
+                        JsonNode updateRoleNode = rootNode.path("data").path("updateRole");
+
+                        if (!updateRoleNode.isMissingNode() && updateRoleNode.isBoolean() && updateRoleNode.asBoolean()) {
+                            roleCache.invalidate(role.getId());
+                            responseModel.setData(true); // Or role, or null
+                            responseModel.setMessage("Role updated successfully");
+                            responseModel.setStatus(200);
+                            responseModel.setError(null);
+                        } else {
+                            String errorMessage = "Unable to update role.";
+                            if (rootNode.has("errors")) {
+                                errorMessage = rootNode.get("errors").toString();
+                            } else if (!updateRoleNode.isMissingNode() && updateRoleNode.isBoolean() && !updateRoleNode.asBoolean()) {
+                                errorMessage = "Update role operation returned false.";
+                            }
+                            responseModel.setData(graphqlResponse); // Or false
+                            responseModel.setMessage("Error updating role");
+                            responseModel.setStatus(500); // Or 404 if ID not found, based on API behavior
+                            responseModel.setError(errorMessage);
+                        }
+                    } catch (JsonProcessingException e) {
+                        setParseError(responseModel, graphqlResponse, e);
+                    }
+
+                    return responseModel;
+                })
+                .onErrorResume(e -> Mono.just(errorResponse(e)));
+    }
+
+    @Override
+    public Mono<ResponseModel> deleteRole(Long id) {
+        // Align with Azure Function's RoleMutationResolver: direct argument
+        return postGraphQL(deleteRoleDocument.body(Map.of("id", String.valueOf(id))))
+                .map(graphqlResponse -> {
+                    ResponseModel responseModel = new ResponseModel();
+
+                    // Parse the GraphQL response, expecting a boolean
+                    try {
+                        JsonNode rootNode = objectMapper.readTree(graphqlResponse);
+                        JsonNode deleteRoleNode = rootNode.path("data").path("deleteRole");
+
+                        if (!deleteRoleNode.isMissingNode() && deleteRoleNode.isBoolean() && deleteRoleNode.asBoolean()) {
+                            roleCache.invalidate(id);
+                            Map<String, Object> deleteSuccessResponse = new HashMap<>();
+                            deleteSuccessResponse.put("success", true);
+                            deleteSuccessResponse.put("message", "Role deleted successfully");
+                            deleteSuccessResponse.put("id", id);
+                            responseModel.setData(deleteSuccessResponse); // Or just true
+                            responseModel.setMessage("Role deleted successfully");
+                            responseModel.setStatus(200);
+                            responseModel.setError(null);
+                        } else {
+                            String errorMessage = "Unable to delete role.";
+                            if (rootNode.has("errors")) {
+                                errorMessage = rootNode.get("errors").toString();
+                            } else if (!deleteRoleNode.isMissingNode() && deleteRoleNode.isBoolean() && !deleteRoleNode.asBoolean()) {
+                                errorMessage = "Delete role operation returned false.";
+                            }
+                            responseModel.setData(graphqlResponse); // Or false
+                            responseModel.setMessage("Error deleting role");
+                            responseModel.setStatus(500); // Or 404 if ID not found
+                            responseModel.setError(errorMessage);
+                        }
+                    } catch (JsonProcessingException e) {
+                        setParseError(responseModel, graphqlResponse, e);
+                    }
+
+                    return responseModel;
+                })
+                .onErrorResume(e -> Mono.just(errorResponse(e)));
+    }
+
+    private Mono<String> postGraphQL(byte[] graphqlRequest) {
+        return upstreamExecutor.execute(GRAPHQL, webClient.post()
+                .uri("/graphql")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(graphqlRequest)
+                .retrieve()
+                .bodyToMono(String.class))
+                .defaultIfEmpty("");
+    }
+
+    private RoleModel toRole(JsonNode roleNode) {
+        RoleModel role = new RoleModel();
+        role.setId(Long.parseLong(roleNode.path("id").asText()));
+        role.setTitle(roleNode.path("title").asText());
+        role.setDescription(roleNode.path("description").asText());
+        return role;
+    }
+
+    private ResponseModel success(Object data) {
+        ResponseModel responseModel = new ResponseModel();
+        responseModel.setData(data);
+        responseModel.setMessage("Success");
+        responseModel.setStatus(200);
+        responseModel.setError(null);
+        return responseModel;
+    }
+
+    private void setParseError(ResponseModel responseModel, String graphqlResponse, JsonProcessingException e) {
+        responseModel.setData(graphqlResponse);
+        responseModel.setMessage("Error parsing GraphQL response");
+        responseModel.setStatus(500);
+        responseModel.setError(e.getMessage());
+    }
+
+    private ResponseModel errorResponse(Throwable e) {
+        ResponseModel responseModel = new ResponseModel();
+        if (e instanceof DeadlineExceededException) {
+            responseModel.setMessage("Request deadline exceeded");
+            responseModel.setStatus(504);
+            responseModel.setError(e.getMessage());
+            return responseModel;
+        }
+        if (e instanceof UpstreamUnavailableException) {
+            responseModel.setMessage("Role service temporarily unavailable");
+            responseModel.setStatus(503);
+            responseModel.setError(e.getMessage());
+            return responseModel;
+        }
+        if (e instanceof UpstreamErrorException) {
+            responseModel.setMessage("Role service answered with errors");
+            responseModel.setStatus(502);
+            responseModel.setError(e.getMessage());
+            return responseModel;
+        }
+        responseModel.setMessage(e.getLocalizedMessage());
+        responseModel.setStatus(500);
+        responseModel.setError(e.getMessage());
+        return responseModel;
+    }
+}
@@ -0,0 +1,360 @@
+package com.cloud.bff.services.serviceImpl;
+
+import com.cloud.bff.cache.CachedReads;
+import com.cloud.bff.cache.UserCache;
+import com.cloud.bff.models.ResponseModel;
+import com.cloud.bff.models.UserModel;
+import com.cloud.bff.services.ReactiveUserService;
+import com.cloud.bff.upstream.DeadlineExceededException;
+import com.cloud.bff.upstream.JsonArrayDecoder;
+import com.cloud.bff.upstream.SingleFlight;
+import com.cloud.bff.upstream.UpstreamExecutor;
+import com.cloud.bff.upstream.UpstreamUnavailableException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Comparator;
+import java.util.List;
+
+@Service
+public class ReactiveUserServiceImpl implements ReactiveUserService {
+
+    private static final String USER_REST = "userRest";
+
+    // Listings are kept in id order so pages can be cut by keyset
+    private static final Comparator<UserModel> BY_ID =
+            Comparator.comparing(UserModel::getId, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final WebClient webClient;
+    private final ObjectMapper objectMapper;
+    private final UserCache userCache;
+    private final UpstreamExecutor upstreamExecutor;
+    private final SingleFlight<String, ResponseModel> getUsersFlight;
+    private final SingleFlight<Long, ResponseModel> getUserByIdFlight;
+    private final JsonArrayDecoder usersDecoder;
+    private final Logger logger = LoggerFactory.getLogger(ReactiveUserServiceImpl.class);
+
+    public ReactiveUserServiceImpl(WebClient upstreamWebClient, ObjectMapper objectMapper, UserCache userCache,
+                                   UpstreamExecutor upstreamExecutor, MeterRegistry meterRegistry) {
+        this.webClient = upstreamWebClient;
+        this.objectMapper = objectMapper;
+        this.userCache = userCache;
+        this.upstreamExecutor = upstreamExecutor;
+        this.getUsersFlight = new SingleFlight<>("users.getUsers", meterRegistry);
+        this.getUserByIdFlight = new SingleFlight<>("users.getUserById", meterRegistry);
+        // /userRest answers with a top-level array
+        this.usersDecoder = new JsonArrayDecoder(objectMapper);
+    }
+
+    @Override
+    public Mono<ResponseModel> getUsers() {
+        return CachedReads.serve(userCache.getAllEntry(), this::usersRetrieved,
+                () -> getUsersFlight.execute("all", this::fetchUsers)
+                        .onErrorResume(e -> Mono.just(errorResponse(e))));
+    }
+
+    private Mono<ResponseModel> fetchUsers() {
+        return Mono.defer(() -> {
+            long generation = userCache.generation();
+            return upstreamExecutor.read("users.getUsers", streamAllUsers().collectSortedList(BY_ID))
+                    .map(users -> {
+                        userCache.putAll(users, generation);
+                        return usersRetrieved(users);
+                    });
+        }).onErrorResume(e -> {
+            logger.error("Error getting users: {}", e.getMessage(), e);
+            return Mono.just(errorResponse(e));
+        });
+    }
+
+    @Override
+    public Flux<UserModel> streamUsers() {
+        List<UserModel> cachedUsers = userCache.getAll();
+        if (cachedUsers != null) {
+            return Flux.fromIterable(cachedUsers);
+        }
+
+        return streamAllUsers();
+    }
+
+    private Flux<UserModel> streamAllUsers() {
+        // Decode users one by one as the response buffers arrive
+        Flux<DataBuffer> body = upstreamExecutor.executeMany(USER_REST, webClient.get()
+                .uri("/userRest")
+                .retrieve()
+                .bodyToFlux(DataBuffer.class));
+
+        // Manually map fields to handle roleId → rol conversion
+        return usersDecoder.decode(body).map(this::toUser);
+    }
+
+    @Override
+    public Mono<ResponseModel> addUser(UserModel user) {
+        // Create a clean JSON object with the required fields
+        ObjectNode json = objectMapper.createObjectNode();
+        json.put("email", user.getEmail());
+        json.put("password", user.getPassword());
+
+        // Only add roleId if rol is provided in the UserModel
+        if (user.getRol() != null && !user.getRol().isEmpty()) {
+            try {
+                Long roleId = Long.parseLong(user.getRol());
+                json.put("roleId", roleId);
+            } catch (NumberFormatException e) {
+                // If not a valid number, don't include roleId
+                // The event handler will assign default role
+                logger.warn("Invalid role ID format: {}. Default role will be assigned.", user.getRol());
+            }
+        }
+
+        logger.info("Creating user: {}", json);
+
+        return upstreamExecutor.execute(USER_REST, webClient.post()
+                .uri("/userRest")
+                .header("Content-Type", "application/json")
+                .bodyValue(json)
+                .retrieve()
+                .bodyToMono(String.class))
+                .map(response -> {
+                    ResponseModel responseModel = new ResponseModel();
+                    responseModel.setData(response);
+
+                    // Check response for errors
+                    if (response.contains("Error")) {
+                        responseModel.setMessage("Failed to create user");
+                        responseModel.setStatus(500);
+                        responseModel.setError(response);
+                    } else {
+                        responseModel.setMessage("User created successfully");
+                        responseModel.setStatus(201);
+                        responseModel.setError(null);
+                    }
+
+                    return responseModel;
+                })
+                .defaultIfEmpty(emptySuccess("User created successfully", 201))
+                .doFinally(signal -> userCache.invalidateList())
+                .onErrorResume(e -> {
+                    logger.error("Error adding user: {}", e.getMessage(), e);
+                    return Mono.just(errorResponse(e));
+                });
+    }
+
+    @Override
+    public Mono<ResponseModel> updateUser(UserModel user) {
+        // Create a clean JSON object with the required fields
+        ObjectNode json = objectMapper.createObjectNode();
+        json.put("id", user.getId());
+        json.put("email", user.getEmail());
+        json.put("password", user.getPassword());
+
+        // Only add roleId if rol is provided in the UserModel
+        if (user.getRol() != null && !user.getRol().isEmpty()) {
+            try {
+                Long roleId = Long.parseLong(user.getRol());
+                json.put("roleId", roleId);
+            } catch (NumberFormatException e) {
+                // If not a valid number, skip roleId to avoid errors
+                logger.warn("Invalid role ID format: {}. Role won't be updated.", user.getRol());
+            }
+        }
+
+        logger.info("Updating user: {}", json);
+
+        return upstreamExecutor.execute(USER_REST, webClient.put()
+                .uri("/userRest")
+                .header("Content-Type", "application/json")
+                .bodyValue(json)
+                .retrieve()
+                .bodyToMono(String.class))
+                .map(response -> {
+                    ResponseModel responseModel = new ResponseModel();
+                    responseModel.setData(response);
+
+                    // Check response for errors
+                    if (response.contains("Error")) {
+                        responseModel.setMessage("Failed to update user");
+                        responseModel.setStatus(500);
+                        responseModel.setError(response);
+                    } else {
+                        responseModel.setMessage("User updated successfully");
+                        responseModel.setStatus(200);
+                        responseModel.setError(null);
+                    }
+
+                    return responseModel;
+                })
+                .defaultIfEmpty(emptySuccess("User updated successfully", 200))
+                // Drop the cached copy whatever the outcome; the upstream may have applied the write
+                .doFinally(signal -> userCache.invalidate(user.getId()))
+                .onErrorResume(e -> {
+                    logger.error("Error updating user: {}", e.getMessage(), e);
+                    return Mono.just(errorResponse(e));
+                });
+    }
+
+    @Override
+    public Mono<ResponseModel> deleteUser(Long id) {
+        logger.info("Deleting user with ID: {}", id);
+
+        // Create a payload with the ID for deletion
+        ObjectNode deleteBody = objectMapper.createObjectNode();
+        deleteBody.put("id", id);
+
+        return upstreamExecutor.execute(USER_REST, webClient.method(HttpMethod.DELETE)
+                .uri("/userRest")
+                .header("Content-Type", "application/json")
+                .bodyValue(deleteBody)
+                .retrieve()
+                .bodyToMono(String.class))
+                .map(response -> {
+                    ResponseModel responseModel = new ResponseModel();
+                    responseModel.setData(response);
+
+                    // Check if user was found and deleted successfully
+                    if (response.contains("no encontrado")) {
+                        responseModel.setMessage("User not found");
+                        responseModel.setStatus(404);
+                        responseModel.setError(response);
+                    } else if (response.contains("Error")) {
+                        responseModel.setMessage("Failed to delete user");
+                        responseModel.setStatus(500);
+                        responseModel.setError(response);
+                    } else {
+                        responseModel.setMessage("User deleted successfully");
+                        responseModel.setStatus(200);
+                        responseModel.setError(null);
+                    }
+
+                    return responseModel;
+                })
+                .defaultIfEmpty(emptySuccess("User deleted successfully", 200))
+                .doFinally(signal -> userCache.invalidate(id))
+                .onErrorResume(e -> {
+                    logger.error("Error deleting user: {}", e.getMessage(), e);
+                    return Mono.just(errorResponse(e));
+                });
+    }
+
+    @Override
+    public Mono<ResponseModel> getUserById(Long id) {
+        return CachedReads.serve(userCache.getEntry(id), this::userRetrieved,
+                () -> getUserByIdFlight.execute(id, () -> fetchUserById(id))
+                        .onErrorResume(e -> Mono.just(errorResponse(e))));
+    }
+
+    private Mono<ResponseModel> fetchUserById(Long id) {
+        logger.info("Fetching user with ID: {}", id);
+        long generation = userCache.generation();
+
+        // Get user by ID from the Azure Function
+        return upstreamExecutor.read("users.getUserById", upstreamExecutor.execute(USER_REST, webClient.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/userRest")
+                        .queryParam("id", id)
+                        .build())
+                .retrieve()
+                .bodyToMono(String.class)))
+                .defaultIfEmpty("")
+                .map(response -> {
+                    ResponseModel responseModel = new ResponseModel();
+
+                    // Check if the response is valid
+                    if (response.isEmpty() || response.equals("null")) {
+                        responseModel.setMessage("User not found");
+                        responseModel.setStatus(404);
+                        responseModel.setError("No user exists with ID: " + id);
+                        return responseModel;
+                    }
+
+                    // Parse the response to extract user data
+                    try {
+                        JsonNode userNode = objectMapper.readTree(response);
+                        UserModel user = toUser(userNode);
+                        userCache.put(user, generation);
+                        return userRetrieved(user);
+                    } catch (Exception e) {
+                        logger.error("Error parsing user data: {}", e.getMessage(), e);
+                        responseModel.setMessage("Error parsing user data");
+                        responseModel.setStatus(500);
+                        responseModel.setError(e.getMessage());
+                    }
+
+                    return responseModel;
+                })
+                .onErrorResume(e -> {
+                    logger.error("Error getting user by ID: {}", e.getMessage(), e);
+                    return Mono.just(errorResponse(e));
+                });
+    }
+
+    private UserModel toUser(JsonNode node) {
+        UserModel user = new UserModel();
+        user.setId(node.has("id") ? node.get("id").asLong() : null);
+        user.setEmail(node.has("email") ? node.get("email").asText() : null);
+        user.setPassword(node.has("password") ? node.get("password").asText() : null);
+
+        // Set roleId directly to rol without any conversion
+        if (node.has("roleId") && !node.get("roleId").isNull()) {
+            user.setRol(node.get("roleId").asText());
+        }
+
+        return user;
+    }
+
+    private ResponseModel userRetrieved(UserModel user) {
+        ResponseModel responseModel = new ResponseModel();
+        responseModel.setData(user);
+        responseModel.setMessage("User retrieved successfully");
+        responseModel.setStatus(200);
+        responseModel.setError(null);
+        return responseModel;
+    }
+
+    private ResponseModel usersRetrieved(List<UserModel> users) {
+        ResponseModel responseModel = new ResponseModel();
+        responseModel.setData(users);
+        responseModel.setMessage("Success");
+        responseModel.setStatus(200);
+        responseModel.setError(null);
+        return responseModel;
+    }
+
+    private ResponseModel emptySuccess(String message, int status) {
+        ResponseModel responseModel = new ResponseModel();
+        responseModel.setMessage(message);
+        responseModel.setStatus(status);
+        responseModel.setError(null);
+        return responseModel;
+    }
+
+    private ResponseModel errorResponse(Throwable e) {
+        ResponseModel responseModel = new ResponseModel();
+        if (e instanceof DeadlineExceededException) {
+            responseModel.setMessage("Request deadline exceeded");
+            responseModel.setStatus(504);
+            responseModel.setError(e.getMessage());
+            return responseModel;
+        }
+        if (e instanceof UpstreamUnavailableException) {
+            responseModel.setMessage("User service temporarily unavailable");
+            responseModel.setStatus(503);
+            responseModel.setError(e.getMessage());
+            return responseModel;
+        }
+        responseModel.setMessage(e.getLocalizedMessage());
+        responseModel.setStatus(500);
+        responseModel.setError(e.getMessage());
+        return responseModel;
+    }
+}
@@ -0,0 +1,91 @@
+package com.cloud.bff.upstream;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Gathers single-key upstream reads into batches. Keys issued within {@code window} of
+ * the first pending one, or until {@code maxBatchSize} keys are waiting, go out as one
+ * call to the batch function and each caller gets its own entry of the result. Batch
+ * sizes are recorded in bff.upstream.batch.size{operation}.
+ */
+public class BatchingExecutor<K, V> {
+
+    private final Sinks.Many<Pending<K, V>> queue = Sinks.many().unicast().onBackpressureBuffer();
+    private final Function<Set<K>, Mono<Map<K, V>>> batchFunction;
+    private final DistributionSummary batchSize;
+    private final Disposable subscription;
+
+    public BatchingExecutor(String operation, int maxBatchSize, Duration window,
+                            Function<Set<K>, Mono<Map<K, V>>> batchFunction, MeterRegistry meterRegistry) {
+        this.batchFunction = batchFunction;
+        this.batchSize = DistributionSummary.builder("bff.upstream.batch.size")
+                .description("Keys sent in one batched upstream call")
+                .tag("operation", operation)
+                .register(meterRegistry);
+        this.subscription = queue.asFlux()
+                .bufferTimeout(maxBatchSize, window)
+                .flatMap(this::executeBatch)
+                .subscribe();
+    }
+
+    public Mono<V> load(K key) {
+        return Mono.defer(() -> {
+            Sinks.One<V> result = Sinks.one();
+            // The unicast sink only accepts one producer at a time
+            synchronized (queue) {
+                queue.emitNext(new Pending<>(key, result), Sinks.EmitFailureHandler.FAIL_FAST);
+            }
+            return result.asMono();
+        });
+    }
+
+    public void dispose() {
+        subscription.dispose();
+    }
+
+    private Mono<Void> executeBatch(List<Pending<K, V>> batch) {
+        Set<K> keys = new LinkedHashSet<>();
+        for (Pending<K, V> pending : batch) {
+            keys.add(pending.key);
+        }
+        batchSize.record(keys.size());
+
+        return Mono.defer(() -> batchFunction.apply(keys))
+                .doOnNext(results -> {
+                    for (Pending<K, V> pending : batch) {
+                        V value = results.get(pending.key);
+                        if (value != null) {
+                            pending.result.tryEmitValue(value);
+                        }
+                    }
+                })
+                .doOnError(e -> batch.forEach(pending -> pending.result.tryEmitError(e)))
+                // Keys the batch left unanswered complete empty instead of hanging their callers
+                .doFinally(signal -> batch.forEach(pending -> pending.result.tryEmitEmpty()))
+                .then()
+                .onErrorResume(e -> Mono.empty());
+    }
+
+    private static class Pending<K, V> {
+
+        private final K key;
+        private final Sinks.One<V> result;
+
+        private Pending(K key, Sinks.One<V> result) {
+            this.key = key;
+            this.result = result;
+        }
+    }
+}
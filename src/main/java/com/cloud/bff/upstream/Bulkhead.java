@@ -0,0 +1,30 @@
+package com.cloud.bff.upstream;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Caps concurrent calls to one upstream. Calls over the limit are rejected straight
+ * away rather than queued, so a slow upstream cannot hold every request thread.
+ */
+public class Bulkhead {
+
+    private final int maxConcurrentCalls;
+    private final Semaphore permits;
+
+    public Bulkhead(int maxConcurrentCalls) {
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.permits = new Semaphore(maxConcurrentCalls);
+    }
+
+    public boolean tryAcquire() {
+        return permits.tryAcquire();
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public int getActiveCalls() {
+        return maxConcurrentCalls - permits.availablePermits();
+    }
+}
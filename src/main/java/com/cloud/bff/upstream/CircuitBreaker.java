@@ -0,0 +1,124 @@
+package com.cloud.bff.upstream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+
+/**
+ * Count-based circuit breaker. The outcomes of the last {@code slidingWindowSize} calls
+ * are kept in a ring; once at least {@code minimumCalls} are recorded and the failure
+ * rate reaches the threshold the breaker opens and rejects calls. After
+ * {@code waitDurationInOpenState} it lets {@code permittedCallsInHalfOpenState} trial
+ * calls through: one failure reopens it, all of them succeeding closes it.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String name;
+    private final boolean[] outcomes;
+    private final int minimumCalls;
+    private final float failureRateThreshold;
+    private final long waitInOpenNanos;
+    private final int permittedCallsInHalfOpen;
+    private final Logger logger = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    private State state = State.CLOSED;
+    private int next;
+    private int recorded;
+    private int failures;
+    private long openedAt;
+    private int halfOpenInFlight;
+    private int halfOpenSucceeded;
+
+    public CircuitBreaker(String name, int slidingWindowSize, int minimumCalls, float failureRateThreshold,
+                          Duration waitDurationInOpenState, int permittedCallsInHalfOpenState) {
+        this.name = name;
+        this.outcomes = new boolean[slidingWindowSize];
+        this.minimumCalls = Math.min(minimumCalls, slidingWindowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.waitInOpenNanos = waitDurationInOpenState.toNanos();
+        this.permittedCallsInHalfOpen = permittedCallsInHalfOpenState;
+    }
+
+    public synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAt < waitInOpenNanos) {
+                return false;
+            }
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenInFlight + halfOpenSucceeded >= permittedCallsInHalfOpen) {
+                return false;
+            }
+            halfOpenInFlight++;
+        }
+        return true;
+    }
+
+    // A permitted call that ended without an outcome (cancelled) gives its trial slot back
+    public synchronized void releasePermission() {
+        if (state == State.HALF_OPEN && halfOpenInFlight > 0) {
+            halfOpenInFlight--;
+        }
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            halfOpenInFlight = Math.max(0, halfOpenInFlight - 1);
+            if (++halfOpenSucceeded >= permittedCallsInHalfOpen) {
+                transitionTo(State.CLOSED);
+            }
+        } else if (state == State.CLOSED) {
+            record(false);
+        }
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            transitionTo(State.OPEN);
+        } else if (state == State.CLOSED) {
+            record(true);
+            if (recorded >= minimumCalls && failures * 100f / recorded >= failureRateThreshold) {
+                transitionTo(State.OPEN);
+            }
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void record(boolean failure) {
+        if (recorded == outcomes.length) {
+            if (outcomes[next]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        outcomes[next] = failure;
+        if (failure) {
+            failures++;
+        }
+        next = (next + 1) % outcomes.length;
+    }
+
+    private void transitionTo(State newState) {
+        logger.warn("Circuit breaker '{}' changed from {} to {}", name, state, newState);
+        state = newState;
+        halfOpenInFlight = 0;
+        halfOpenSucceeded = 0;
+        if (newState == State.OPEN) {
+            openedAt = System.nanoTime();
+        } else if (newState == State.CLOSED) {
+            next = 0;
+            recorded = 0;
+            failures = 0;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.cloud.bff.upstream;
+
+import java.time.Duration;
+
+/**
+ * Point in time by which a request must be answered. Carried in the Reactor context
+ * of the request's pipeline so every upstream call can see how much budget is left.
+ */
+public class Deadline {
+
+    private final long expiresAtNanos;
+
+    private Deadline(long expiresAtNanos) {
+        this.expiresAtNanos = expiresAtNanos;
+    }
+
+    public static Deadline after(Duration timeout) {
+        return new Deadline(System.nanoTime() + timeout.toNanos());
+    }
+
+    public Duration remaining() {
+        return Duration.ofNanos(Math.max(0, expiresAtNanos - System.nanoTime()));
+    }
+
+    public boolean isExpired() {
+        return expiresAtNanos - System.nanoTime() <= 0;
+    }
+}
@@ -0,0 +1,11 @@
+package com.cloud.bff.upstream;
+
+/**
+ * Raised when an upstream call cannot finish within the request's {@link Deadline}.
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,54 @@
+package com.cloud.bff.upstream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * A constant GraphQL document sent to the upstream function. The document text never
+ * changes between calls, so the upstream can reuse its parsed and validated form, and
+ * the constant part of the request body is serialized once, when the document is
+ * created; a call only serializes its variables and appends them.
+ */
+public class GraphQLDocument {
+
+    private static final byte[] CLOSE = "}".getBytes(StandardCharsets.UTF_8);
+
+    private final ObjectMapper objectMapper;
+    private final byte[] body;
+    private final byte[] prefix;
+
+    public GraphQLDocument(ObjectMapper objectMapper, String query) {
+        this.objectMapper = objectMapper;
+        try {
+            String serializedQuery = objectMapper.writeValueAsString(query);
+            this.body = ("{\"query\":" + serializedQuery + "}").getBytes(StandardCharsets.UTF_8);
+            this.prefix = ("{\"query\":" + serializedQuery + ",\"variables\":").getBytes(StandardCharsets.UTF_8);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Request body for a document without variables
+    public byte[] body() {
+        return body;
+    }
+
+    public byte[] body(Map<String, ?> variables) {
+        byte[] serializedVariables;
+        try {
+            serializedVariables = objectMapper.writeValueAsBytes(variables);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        byte[] request = new byte[prefix.length + serializedVariables.length + CLOSE.length];
+        System.arraycopy(prefix, 0, request, 0, prefix.length);
+        System.arraycopy(serializedVariables, 0, request, prefix.length, serializedVariables.length);
+        System.arraycopy(CLOSE, 0, request, prefix.length + serializedVariables.length, CLOSE.length);
+        return request;
+    }
+}
@@ -0,0 +1,179 @@
+package com.cloud.bff.upstream;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteBufferFeeder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Decodes the elements of one JSON array straight from the response buffers with
+ * Jackson's non-blocking parser. The array is located by its field path (empty for a
+ * top-level array) and each element is emitted as soon as its last token arrives, so
+ * only the element being parsed is held in memory, never the whole document. A
+ * non-empty top-level GraphQL {@code errors} list fails the decoding with
+ * {@link UpstreamErrorException} once the document ends, whatever data came with it,
+ * so a failed query never passes for an empty or partial listing. Buffers
+ * are requested one at a time, and any still queued when the subscriber cancels are
+ * released.
+ */
+public class JsonArrayDecoder {
+
+    private final ObjectMapper objectMapper;
+    private final List<String> path;
+
+    public JsonArrayDecoder(ObjectMapper objectMapper, String... path) {
+        this.objectMapper = objectMapper;
+        this.path = Arrays.asList(path);
+    }
+
+    public Flux<JsonNode> decode(Flux<DataBuffer> body) {
+        return Flux.defer(() -> {
+            Decoding decoding = new Decoding();
+            return body
+                    .concatMapIterable(decoding::feed, 1)
+                    .concatWith(Flux.defer(() -> Flux.fromIterable(decoding.endOfInput())))
+                    .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                    .doFinally(signal -> decoding.close());
+        });
+    }
+
+    private class Decoding {
+
+        private final JsonParser parser;
+        private TokenBuffer element;
+        private int elementDepth;
+        private boolean inArray;
+        // The element being buffered is the errors list, not an element of the array
+        private boolean inErrors;
+        private JsonNode errors;
+
+        private Decoding() {
+            try {
+                this.parser = objectMapper.getFactory().createNonBlockingByteBufferParser();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private List<JsonNode> feed(DataBuffer buffer) {
+            List<JsonNode> elements = new ArrayList<>();
+            ByteBufferFeeder feeder = (ByteBufferFeeder) parser.getNonBlockingInputFeeder();
+            try (DataBuffer.ByteBufferIterator chunks = buffer.readableByteBuffers()) {
+                while (chunks.hasNext()) {
+                    feeder.feedInput(chunks.next());
+                    drain(elements);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                DataBufferUtils.release(buffer);
+            }
+            return elements;
+        }
+
+        private List<JsonNode> endOfInput() {
+            List<JsonNode> elements = new ArrayList<>();
+            ((ByteBufferFeeder) parser.getNonBlockingInputFeeder()).endOfInput();
+            try {
+                drain(elements);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (errors != null && !errors.isEmpty()) {
+                throw new UpstreamErrorException("Upstream answered with errors: " + errors);
+            }
+            return elements;
+        }
+
+        private void drain(List<JsonNode> elements) throws IOException {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+                if (element != null) {
+                    element.copyCurrentEvent(parser);
+                    if (token.isStructStart()) {
+                        elementDepth++;
+                    } else if (token.isStructEnd()) {
+                        elementDepth--;
+                    }
+                    if (elementDepth == 0) {
+                        completed(elements);
+                    }
+                } else if (inArray) {
+                    if (token == JsonToken.END_ARRAY) {
+                        inArray = false;
+                        continue;
+                    }
+                    element = new TokenBuffer(parser);
+                    element.copyCurrentEvent(parser);
+                    elementDepth = token.isStructStart() ? 1 : 0;
+                    if (elementDepth == 0) {
+                        completed(elements);
+                    }
+                } else if (token == JsonToken.START_ARRAY && isTargetArray(parser.getParsingContext())) {
+                    inArray = true;
+                } else if (token == JsonToken.START_ARRAY && isErrorsArray(parser.getParsingContext())) {
+                    element = new TokenBuffer(parser);
+                    element.copyCurrentEvent(parser);
+                    elementDepth = 1;
+                    inErrors = true;
+                }
+            }
+        }
+
+        private void completed(List<JsonNode> elements) throws IOException {
+            if (inErrors) {
+                errors = complete();
+                inErrors = false;
+            } else {
+                elements.add(complete());
+            }
+        }
+
+        private JsonNode complete() throws IOException {
+            try (JsonParser elementParser = element.asParser(objectMapper)) {
+                return objectMapper.readTree(elementParser);
+            } finally {
+                element = null;
+            }
+        }
+
+        private boolean isTargetArray(JsonStreamContext arrayContext) {
+            // Walk up from the array's context collecting the field names that lead to it
+            List<String> names = new ArrayList<>();
+            for (JsonStreamContext context = arrayContext.getParent(); context != null && !context.inRoot();
+                 context = context.getParent()) {
+                if (!context.inObject()) {
+                    return false;
+                }
+                names.add(0, context.getCurrentName());
+            }
+            return names.equals(path);
+        }
+
+        private boolean isErrorsArray(JsonStreamContext arrayContext) {
+            JsonStreamContext parent = arrayContext.getParent();
+            return parent != null && parent.inObject() && "errors".equals(parent.getCurrentName())
+                    && parent.getParent() != null && parent.getParent().inRoot();
+        }
+
+        private void close() {
+            try {
+                parser.close();
+            } catch (IOException e) {
+                // Nothing left to release
+            }
+        }
+    }
+}
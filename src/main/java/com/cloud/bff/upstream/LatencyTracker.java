@@ -0,0 +1,41 @@
+package com.cloud.bff.upstream;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Keeps the latencies of the most recent successful calls of one operation in a ring
+ * and answers percentile queries over them.
+ */
+public class LatencyTracker {
+
+    private final long[] samples;
+    private int next;
+    private int count;
+
+    public LatencyTracker(int windowSize) {
+        this.samples = new long[windowSize];
+    }
+
+    public synchronized void record(Duration latency) {
+        samples[next] = latency.toNanos();
+        next = (next + 1) % samples.length;
+        if (count < samples.length) {
+            count++;
+        }
+    }
+
+    // Null until minSamples latencies have been seen, so a cold operation is not hedged on noise
+    public Duration percentile(double percentile, int minSamples) {
+        long[] snapshot;
+        synchronized (this) {
+            if (count < minSamples || count == 0) {
+                return null;
+            }
+            snapshot = Arrays.copyOf(samples, count);
+        }
+        Arrays.sort(snapshot);
+        int index = (int) Math.ceil(percentile * snapshot.length) - 1;
+        return Duration.ofNanos(snapshot[Math.max(0, Math.min(index, snapshot.length - 1))]);
+    }
+}
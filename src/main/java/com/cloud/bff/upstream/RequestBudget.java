@@ -0,0 +1,35 @@
+package com.cloud.bff.upstream;
+
+/**
+ * Token bucket that limits extra upstream calls (hedges, retries) to a fraction of
+ * normal traffic. Every normal call deposits {@code ratio} tokens up to
+ * {@code maxTokens}; every extra call spends one whole token or is not made.
+ */
+public class RequestBudget {
+
+    private final double ratio;
+    private final double maxTokens;
+    private double tokens;
+
+    public RequestBudget(double ratio, double maxTokens) {
+        this.ratio = ratio;
+        this.maxTokens = maxTokens;
+        this.tokens = maxTokens;
+    }
+
+    public synchronized void deposit() {
+        tokens = Math.min(maxTokens, tokens + ratio);
+    }
+
+    public synchronized boolean tryWithdraw() {
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+
+    public synchronized double getTokens() {
+        return tokens;
+    }
+}
@@ -0,0 +1,54 @@
+package com.cloud.bff.upstream;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent identical upstream reads into one call. The first caller for a
+ * key starts the call, everyone arriving while it is in flight shares its result, and
+ * the key is released as soon as the call terminates. The shared call runs without any
+ * caller's {@link Deadline}; each caller waits for it only within its own and fails with
+ * {@link DeadlineExceededException} on its own, so a short deadline never fails the others.
+ * Joined callers are counted in bff.upstream.coalesced{operation}.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, Mono<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter coalesced;
+
+    public SingleFlight(String operation, MeterRegistry meterRegistry) {
+        this.coalesced = Counter.builder("bff.upstream.coalesced")
+                .description("Reads that joined an identical in-flight upstream call")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    public Mono<V> execute(K key, Supplier<Mono<V>> call) {
+        return Mono.deferContextual(context -> {
+            boolean[] leader = new boolean[1];
+            Mono<V> flight = inFlight.computeIfAbsent(key, k -> {
+                leader[0] = true;
+                return call.get()
+                        .contextWrite(shared -> shared.delete(Deadline.class))
+                        .doFinally(signal -> inFlight.remove(k))
+                        .cache();
+            });
+            if (!leader[0]) {
+                coalesced.increment();
+            }
+
+            Deadline deadline = context.getOrDefault(Deadline.class, null);
+            if (deadline == null) {
+                return flight;
+            }
+            // Giving up only cancels this caller; the shared call keeps going for the others
+            return flight.timeout(deadline.remaining(), Mono.error(new DeadlineExceededException(
+                    "Upstream did not answer within the request deadline")));
+        });
+    }
+}
@@ -0,0 +1,12 @@
+package com.cloud.bff.upstream;
+
+/**
+ * Raised when the upstream answers with a GraphQL {@code errors} list, so what it
+ * did return is not taken, or cached, as a complete result.
+ */
+public class UpstreamErrorException extends RuntimeException {
+
+    public UpstreamErrorException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,325 @@
+package com.cloud.bff.upstream;
+
+import com.cloud.bff.config.UpstreamProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs calls to an upstream function behind its circuit breaker and bulkhead. Each
+ * upstream ("graphql", "userRest") gets its own pair, so a failing function cannot
+ * drag the other one down. Rejected calls fail with {@link UpstreamUnavailableException}
+ * without touching the network. Breaker state is published as
+ * bff.upstream.circuit.state{upstream} (0 closed, 1 open, 2 half-open), in-flight calls
+ * as bff.upstream.bulkhead.active{upstream} and rejections as
+ * bff.upstream.rejected{upstream,reason}.
+ * <p>
+ * When the subscriber's context carries a {@link Deadline}, the call only gets the
+ * budget that is left: an already expired request is not sent at all, and a call still
+ * running when the deadline passes is cancelled with {@link DeadlineExceededException}.
+ * A deadline belongs to one caller, so running out of it gives the breaker permission
+ * back instead of counting as a failure; the upstream is only blamed for slowness when
+ * it exceeds the breaker's own call timeout.
+ * <p>
+ * Idempotent reads go through {@link #read}, which adds retries and hedging.
+ */
+@Component
+public class UpstreamExecutor {
+
+    private final UpstreamProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, Guard> guards = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Hedge> hedges = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Retries> retries = new ConcurrentHashMap<>();
+
+    public UpstreamExecutor(UpstreamProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> Mono<T> execute(String upstream, Mono<T> call) {
+        return executeMany(upstream, call.flux()).singleOrEmpty();
+    }
+
+    /**
+     * Runs an idempotent read with retries on transient failures, hedged as a whole.
+     */
+    public <T> Mono<T> read(String operation, Mono<T> call) {
+        return hedge(operation, retry(operation, call));
+    }
+
+    /**
+     * Retries a call that failed on a connection error, a timeout or a 502/503/504,
+     * sleeping with decorrelated jitter (a random delay between the base delay and three
+     * times the previous one, capped). Each retry spends from a budget that normal
+     * calls refill, so retries cannot multiply the load on an upstream that is down,
+     * and no retry is attempted once it could not finish within the request deadline.
+     * Counted in bff.upstream.retries{operation} and
+     * bff.upstream.retry.denied{operation} (budget exhausted).
+     */
+    public <T> Mono<T> retry(String operation, Mono<T> call) {
+        UpstreamProperties.Retry settings = properties.getRetry();
+        if (!settings.isEnabled() || settings.getMaxAttempts() <= 1) {
+            return call;
+        }
+        Retries state = retries.computeIfAbsent(operation, this::newRetries);
+        long baseMillis = settings.getBaseDelay().toMillis();
+        long maxMillis = settings.getMaxDelay().toMillis();
+
+        return Mono.defer(() -> {
+            state.budget.deposit();
+            return call.retryWhen(Retry.from(signals -> {
+                long[] previousMillis = {baseMillis};
+                return signals.concatMap(signal -> Mono.deferContextual(context -> {
+                    Throwable failure = signal.failure();
+                    if (signal.totalRetries() + 1 >= settings.getMaxAttempts() || !isRetryable(failure)) {
+                        return Mono.error(failure);
+                    }
+
+                    long upperMillis = Math.max(baseMillis, previousMillis[0] * 3);
+                    long delayMillis = Math.min(maxMillis,
+                            ThreadLocalRandom.current().nextLong(baseMillis, upperMillis + 1));
+                    Deadline deadline = context.getOrDefault(Deadline.class, null);
+                    if (deadline != null && deadline.remaining().toMillis() <= delayMillis) {
+                        return Mono.error(failure);
+                    }
+                    if (!state.budget.tryWithdraw()) {
+                        state.denied.increment();
+                        return Mono.error(failure);
+                    }
+
+                    previousMillis[0] = delayMillis;
+                    state.retried.increment();
+                    return Mono.delay(Duration.ofMillis(delayMillis));
+                }));
+            }));
+        });
+    }
+
+    /**
+     * Runs an idempotent read and, if it has not answered after the operation's recent
+     * latency percentile, sends an identical second call. Whichever answers first wins
+     * and the other is cancelled. Hedges spend from a budget refilled by normal calls,
+     * so they stay a small fraction of the traffic. A failing hedge never beats the
+     * primary call; only the primary's own error is reported. Counted in
+     * bff.upstream.hedge.sent{operation}, bff.upstream.hedge.won{operation} and
+     * bff.upstream.hedge.skipped{operation} (budget exhausted).
+     */
+    public <T> Mono<T> hedge(String operation, Mono<T> call) {
+        UpstreamProperties.Hedging settings = properties.getHedging();
+        Hedge hedge = hedges.computeIfAbsent(operation, this::newHedge);
+        Mono<T> timedCall = call.elapsed()
+                .doOnNext(timed -> hedge.latency.record(Duration.ofMillis(timed.getT1())))
+                .map(Tuple2::getT2);
+
+        if (!settings.isEnabled()) {
+            return timedCall;
+        }
+
+        return Mono.defer(() -> {
+            hedge.budget.deposit();
+            Duration delay = hedge.latency.percentile(settings.getPercentile(), settings.getMinSamples());
+            if (delay == null) {
+                return timedCall;
+            }
+
+            Mono<T> hedgedCall = Mono.delay(delay)
+                    .flatMap(tick -> {
+                        if (!hedge.budget.tryWithdraw()) {
+                            hedge.skipped.increment();
+                            return Mono.never();
+                        }
+                        hedge.sent.increment();
+                        return timedCall
+                                .doOnNext(value -> hedge.won.increment())
+                                .onErrorResume(e -> Mono.never());
+                    });
+            return Mono.firstWithSignal(timedCall, hedgedCall);
+        });
+    }
+
+    public <T> Flux<T> executeMany(String upstream, Flux<T> call) {
+        return Flux.deferContextual(context -> {
+            Deadline deadline = context.getOrDefault(Deadline.class, null);
+            if (deadline != null && deadline.isExpired()) {
+                return Flux.error(new DeadlineExceededException(
+                        "Deadline exceeded before calling upstream '" + upstream + "'"));
+            }
+
+            Guard guard = guards.computeIfAbsent(upstream, this::newGuard);
+            CircuitBreaker circuitBreaker = guard.circuitBreaker;
+
+            if (!circuitBreaker.tryAcquirePermission()) {
+                guard.circuitOpen.increment();
+                return Flux.error(new UpstreamUnavailableException(
+                        "Circuit breaker for upstream '" + upstream + "' is open"));
+            }
+            if (!guard.bulkhead.tryAcquire()) {
+                circuitBreaker.releasePermission();
+                guard.bulkheadFull.increment();
+                return Flux.error(new UpstreamUnavailableException(
+                        "Too many concurrent calls to upstream '" + upstream + "'"));
+            }
+
+            return withinDeadline(upstream, call.timeout(guard.callTimeout), deadline)
+                    .doOnComplete(circuitBreaker::onSuccess)
+                    .doOnError(e -> {
+                        if (e instanceof DeadlineExceededException) {
+                            circuitBreaker.releasePermission();
+                        } else if (isUpstreamFailure(e)) {
+                            circuitBreaker.onFailure();
+                        } else {
+                            circuitBreaker.onSuccess();
+                        }
+                    })
+                    .doOnCancel(circuitBreaker::releasePermission)
+                    .doFinally(signal -> guard.bulkhead.release());
+        });
+    }
+
+    private <T> Flux<T> withinDeadline(String upstream, Flux<T> call, Deadline deadline) {
+        if (deadline == null) {
+            return call;
+        }
+        // The timeout is re-armed after each element with what is left, so it bounds the whole call
+        return call.timeout(Mono.delay(deadline.remaining()), element -> Mono.delay(deadline.remaining()),
+                Flux.error(new DeadlineExceededException(
+                        "Upstream '" + upstream + "' did not answer within the request deadline")));
+    }
+
+    private boolean isRetryable(Throwable e) {
+        if (e instanceof WebClientResponseException responseException) {
+            int status = responseException.getStatusCode().value();
+            return status == 502 || status == 503 || status == 504;
+        }
+        // Connection refused/reset and connect or read timeouts surface as request exceptions
+        return e instanceof WebClientRequestException || e instanceof TimeoutException;
+    }
+
+    // Client errors mean the upstream is up and answering; everything else counts against it
+    private boolean isUpstreamFailure(Throwable e) {
+        if (e instanceof WebClientResponseException responseException) {
+            return responseException.getStatusCode().is5xxServerError();
+        }
+        return true;
+    }
+
+    private Guard newGuard(String upstream) {
+        UpstreamProperties.CircuitBreaker breakerSettings = properties.getCircuitBreaker();
+        Guard guard = new Guard(
+                new CircuitBreaker(upstream,
+                        breakerSettings.getSlidingWindowSize(),
+                        breakerSettings.getMinimumCalls(),
+                        breakerSettings.getFailureRateThreshold(),
+                        breakerSettings.getWaitDurationInOpenState(),
+                        breakerSettings.getPermittedCallsInHalfOpenState()),
+                new Bulkhead(properties.getBulkhead().getMaxConcurrentCalls()),
+                breakerSettings.getCallTimeout(),
+                rejectedCounter(upstream, "circuit_open"),
+                rejectedCounter(upstream, "bulkhead_full"));
+
+        Gauge.builder("bff.upstream.circuit.state", guard.circuitBreaker, breaker -> breaker.getState().ordinal())
+                .description("Circuit breaker state: 0 closed, 1 open, 2 half-open")
+                .tag("upstream", upstream)
+                .register(meterRegistry);
+        Gauge.builder("bff.upstream.bulkhead.active", guard.bulkhead, Bulkhead::getActiveCalls)
+                .description("Upstream calls currently in flight")
+                .tag("upstream", upstream)
+                .register(meterRegistry);
+        return guard;
+    }
+
+    private Retries newRetries(String operation) {
+        UpstreamProperties.Retry settings = properties.getRetry();
+        return new Retries(
+                new RequestBudget(settings.getBudgetRatio(), settings.getBudgetMaxTokens()),
+                operationCounter("bff.upstream.retries", "Upstream calls retried after a transient failure", operation),
+                operationCounter("bff.upstream.retry.denied", "Retries not made because the budget was spent", operation));
+    }
+
+    private Hedge newHedge(String operation) {
+        UpstreamProperties.Hedging settings = properties.getHedging();
+        return new Hedge(
+                new LatencyTracker(settings.getWindowSize()),
+                new RequestBudget(settings.getBudgetRatio(), settings.getBudgetMaxTokens()),
+                operationCounter("bff.upstream.hedge.sent", "Hedged calls sent", operation),
+                operationCounter("bff.upstream.hedge.won", "Hedged calls that answered before the primary call", operation),
+                operationCounter("bff.upstream.hedge.skipped", "Hedges not sent because the budget was spent", operation));
+    }
+
+    private Counter operationCounter(String name, String description, String operation) {
+        return Counter.builder(name)
+                .description(description)
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    private Counter rejectedCounter(String upstream, String reason) {
+        return Counter.builder("bff.upstream.rejected")
+                .description("Upstream calls rejected without being sent")
+                .tag("upstream", upstream)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    private static class Guard {
+
+        private final CircuitBreaker circuitBreaker;
+        private final Bulkhead bulkhead;
+        private final Duration callTimeout;
+        private final Counter circuitOpen;
+        private final Counter bulkheadFull;
+
+        private Guard(CircuitBreaker circuitBreaker, Bulkhead bulkhead, Duration callTimeout, Counter circuitOpen,
+                      Counter bulkheadFull) {
+            this.circuitBreaker = circuitBreaker;
+            this.bulkhead = bulkhead;
+            this.callTimeout = callTimeout;
+            this.circuitOpen = circuitOpen;
+            this.bulkheadFull = bulkheadFull;
+        }
+    }
+
+    private static class Hedge {
+
+        private final LatencyTracker latency;
+        private final RequestBudget budget;
+        private final Counter sent;
+        private final Counter won;
+        private final Counter skipped;
+
+        private Hedge(LatencyTracker latency, RequestBudget budget, Counter sent, Counter won, Counter skipped) {
+            this.latency = latency;
+            this.budget = budget;
+            this.sent = sent;
+            this.won = won;
+            this.skipped = skipped;
+        }
+    }
+
+    private static class Retries {
+
+        private final RequestBudget budget;
+        private final Counter retried;
+        private final Counter denied;
+
+        private Retries(RequestBudget budget, Counter retried, Counter denied) {
+            this.budget = budget;
+            this.retried = retried;
+            this.denied = denied;
+        }
+    }
+}
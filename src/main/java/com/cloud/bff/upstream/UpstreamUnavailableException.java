@@ -0,0 +1,12 @@
+package com.cloud.bff.upstream;
+
+/**
+ * Raised without calling the upstream when its circuit breaker is open or its
+ * bulkhead is full.
+ */
+public class UpstreamUnavailableException extends RuntimeException {
+
+    public UpstreamUnavailableException(String message) {
+        super(message);
+    }
+}
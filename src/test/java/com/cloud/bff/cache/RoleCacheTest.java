@@ -0,0 +1,43 @@
+package com.cloud.bff.cache;
+
+import com.cloud.bff.config.ReadCacheProperties;
+import com.cloud.bff.models.RoleModel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RoleCacheTest {
+
+	private final RoleCache cache = new RoleCache(new ReadCacheProperties(), new SimpleMeterRegistry());
+
+	@Test
+	void dropsALoadThatAnInvalidationOvertook() {
+		long generation = cache.generation();
+		cache.invalidate(1L);
+		cache.put(role(1L, "Before the update"), generation);
+		cache.putAll(List.of(role(1L, "Before the update")), generation);
+
+		assertNull(cache.get(1L));
+		assertNull(cache.getAll());
+	}
+
+	@Test
+	void keepsALoadThatStartedAfterTheInvalidation() {
+		cache.invalidate(1L);
+		long generation = cache.generation();
+		cache.put(role(1L, "After the update"), generation);
+
+		assertEquals("After the update", cache.get(1L).getTitle());
+	}
+
+	private RoleModel role(Long id, String title) {
+		RoleModel role = new RoleModel();
+		role.setId(id);
+		role.setTitle(title);
+		return role;
+	}
+}
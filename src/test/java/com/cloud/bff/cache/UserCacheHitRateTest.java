@@ -0,0 +1,90 @@
+package com.cloud.bff.cache;
+
+import com.cloud.bff.config.ReadCacheProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Replays a skewed user-lookup trace (Zipf-distributed hot accounts mixed with
+ * admin listing scans) against the user cache policy and a plain LRU of the same size.
+ */
+class UserCacheHitRateTest {
+
+	private static final int CAPACITY = 2_000;
+	private static final int USERS = 100_000;
+	private static final int REQUESTS = 500_000;
+	private static final int SCAN_EVERY = 5_000;
+	private static final int SCAN_LENGTH = 3_000;
+
+	@Test
+	void tinyLfuBeatsLruOnSkewedTraceWithScans() {
+		long[] trace = skewedTrace(new Random(42));
+
+		ReadCacheProperties.Users settings = new ReadCacheProperties.Users();
+		settings.setMaximumSize(CAPACITY);
+		settings.setTtl(Duration.ofHours(1));
+		Cache<Long, Boolean> tinyLfu = UserCache.newBuilder(settings).executor(Runnable::run).build();
+
+		Map<Long, Boolean> lru = new LinkedHashMap<>(CAPACITY, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+				return size() > CAPACITY;
+			}
+		};
+
+		long tinyLfuHits = 0;
+		long lruHits = 0;
+		for (long id : trace) {
+			if (tinyLfu.getIfPresent(id) != null) {
+				tinyLfuHits++;
+			} else {
+				tinyLfu.put(id, Boolean.TRUE);
+			}
+			if (lru.get(id) != null) {
+				lruHits++;
+			} else {
+				lru.put(id, Boolean.TRUE);
+			}
+		}
+
+		double tinyLfuRate = (double) tinyLfuHits / trace.length;
+		double lruRate = (double) lruHits / trace.length;
+
+		assertTrue(tinyLfuRate > lruRate, () -> String.format(
+				"W-TinyLFU should keep the hot accounts through scans: W-TinyLFU=%.3f LRU=%.3f (capacity=%d, requests=%d)",
+				tinyLfuRate, lruRate, CAPACITY, trace.length));
+	}
+
+	// Zipf(0.9) over the user ids, interrupted by sequential listing scans over cold ids
+	private long[] skewedTrace(Random random) {
+		double[] cdf = new double[USERS];
+		double sum = 0;
+		for (int i = 0; i < USERS; i++) {
+			sum += 1.0 / Math.pow(i + 1, 0.9);
+			cdf[i] = sum;
+		}
+
+		long[] trace = new long[REQUESTS];
+		int i = 0;
+		while (i < REQUESTS) {
+			if (i > 0 && i % SCAN_EVERY == 0) {
+				long start = USERS + random.nextInt(USERS * 10);
+				for (int j = 0; j < SCAN_LENGTH && i < REQUESTS; j++) {
+					trace[i++] = start + j;
+				}
+				continue;
+			}
+			int index = Arrays.binarySearch(cdf, random.nextDouble() * sum);
+			trace[i++] = index >= 0 ? index : -index - 1;
+		}
+		return trace;
+	}
+}
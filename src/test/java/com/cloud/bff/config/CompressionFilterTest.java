@@ -0,0 +1,199 @@
+package com.cloud.bff.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompressionFilterTest {
+
+	private static final String LARGE_BODY = "{\"roles\":[" + "{\"id\":1,\"title\":\"Admin\"},".repeat(200) + "{}]}";
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final CompressionFilter filter = new CompressionFilter(new CompressionProperties(), meterRegistry);
+
+	@Test
+	void prefersGzipAndHonoursQualityValues() throws Exception {
+		assertEquals("gzip", encodingFor("deflate, gzip"));
+		assertEquals("gzip", encodingFor("*"));
+		assertEquals("deflate", encodingFor("gzip;q=0, deflate"));
+		assertEquals("deflate", encodingFor("br, gzip;q=0.5, deflate;q=0.8"));
+		assertNull(encodingFor("identity"));
+		assertNull(encodingFor("*;q=0"));
+		assertNull(encodingFor(null));
+	}
+
+	@Test
+	void compressesBodiesAtTheThresholdAndAddsVary() throws Exception {
+		MockHttpServletResponse response = filter(request("gzip"), LARGE_BODY, null);
+
+		assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+		assertTrue(response.getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT_ENCODING));
+		assertEquals(response.getContentAsByteArray().length, response.getContentLength());
+		assertEquals(LARGE_BODY, gunzip(response.getContentAsByteArray()));
+	}
+
+	@Test
+	void writesDeflateWhenThatIsTheOnlyAcceptableEncoding() throws Exception {
+		MockHttpServletResponse response = filter(request("deflate"), LARGE_BODY, null);
+
+		assertEquals("deflate", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+		assertEquals(LARGE_BODY, new String(
+				new InflaterInputStream(new ByteArrayInputStream(response.getContentAsByteArray())).readAllBytes(),
+				StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void leavesBodiesUnderTheThresholdAloneButStillVaries() throws Exception {
+		String body = "{\"id\":1,\"title\":\"Admin\"}";
+		MockHttpServletResponse response = filter(request("gzip"), body, null);
+
+		assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+		assertEquals(HttpHeaders.ACCEPT_ENCODING, response.getHeader(HttpHeaders.VARY));
+		assertEquals(body, response.getContentAsString());
+		assertEquals(body.length(), response.getContentLength());
+	}
+
+	@Test
+	void leavesBodiesAloneWithoutAnAcceptableEncoding() throws Exception {
+		MockHttpServletResponse response = filter(request("identity"), LARGE_BODY, null);
+
+		assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+		assertEquals(HttpHeaders.ACCEPT_ENCODING, response.getHeader(HttpHeaders.VARY));
+		assertEquals(LARGE_BODY, response.getContentAsString());
+	}
+
+	@Test
+	void weakensTheTagOfACompressedBody() throws Exception {
+		assertEquals("W/\"v1\"", filter(request("gzip"), LARGE_BODY, "\"v1\"").getHeader(HttpHeaders.ETAG));
+		assertEquals("\"v1\"", filter(request("identity"), LARGE_BODY, "\"v1\"").getHeader(HttpHeaders.ETAG));
+	}
+
+	@Test
+	void reusesTheCompressedCopyForAnUnchangedTaggedResponse() throws Exception {
+		MockHttpServletResponse first = filter(request("gzip"), LARGE_BODY, "\"v1\"");
+		MockHttpServletResponse second = filter(request("gzip"), LARGE_BODY, "\"v1\"");
+
+		assertArrayEquals(first.getContentAsByteArray(), second.getContentAsByteArray());
+		assertEquals(LARGE_BODY, gunzip(second.getContentAsByteArray()));
+		assertEquals(1.0, meterRegistry.get("bff.http.compression.precompressed.hits").counter().count());
+
+		filter(request("gzip"), LARGE_BODY, "\"v2\"");
+		assertEquals(1.0, meterRegistry.get("bff.http.compression.precompressed.hits").counter().count(),
+				"a new tag is compressed again");
+	}
+
+	@Test
+	void compressesAgainWhenTheBodyChangesUnderTheSameTag() throws Exception {
+		String changed = LARGE_BODY.replace("Admin", "Guest");
+		filter(request("gzip"), LARGE_BODY, "\"v1\"");
+		MockHttpServletResponse response = filter(request("gzip"), changed, "\"v1\"");
+
+		assertEquals(changed, gunzip(response.getContentAsByteArray()));
+		assertTrue(meterRegistry.find("bff.http.compression.precompressed.hits").counters().isEmpty());
+	}
+
+	@Test
+	void hasNonBlockingWritesBypassCompression() throws Exception {
+		AtomicReference<WriteListener> registered = new AtomicReference<>();
+		ByteArrayOutputStream written = new ByteArrayOutputStream();
+		MockHttpServletResponse mock = new MockHttpServletResponse();
+		HttpServletResponseWrapper container = new HttpServletResponseWrapper(mock) {
+			@Override
+			public ServletOutputStream getOutputStream() {
+				return new ServletOutputStream() {
+					@Override
+					public void write(int b) {
+						written.write(b);
+					}
+
+					@Override
+					public boolean isReady() {
+						return false;
+					}
+
+					@Override
+					public void setWriteListener(WriteListener writeListener) {
+						registered.set(writeListener);
+					}
+				};
+			}
+		};
+		WriteListener listener = new WriteListener() {
+			@Override
+			public void onWritePossible() {
+			}
+
+			@Override
+			public void onError(Throwable t) {
+			}
+		};
+
+		filter.doFilter(request("gzip"), container, (request, response) -> {
+			response.setContentType("application/json");
+			ServletOutputStream out = response.getOutputStream();
+			out.write("[".getBytes(StandardCharsets.UTF_8));
+			out.setWriteListener(listener);
+			assertFalse(out.isReady(), "readiness comes from the container's stream");
+			out.write(LARGE_BODY.getBytes(StandardCharsets.UTF_8));
+		});
+
+		assertSame(listener, registered.get());
+		assertNull(mock.getHeader(HttpHeaders.CONTENT_ENCODING));
+		assertEquals("[" + LARGE_BODY, written.toString(StandardCharsets.UTF_8));
+	}
+
+	private String encodingFor(String acceptEncoding) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/roles");
+		if (acceptEncoding != null) {
+			request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+		}
+		return filter(request, LARGE_BODY, null).getHeader(HttpHeaders.CONTENT_ENCODING);
+	}
+
+	private MockHttpServletRequest request(String acceptEncoding) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/roles");
+		request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+		return request;
+	}
+
+	private MockHttpServletResponse filter(MockHttpServletRequest request, String body, String etag) throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		FilterChain chain = (req, res) -> {
+			res.setContentType("application/json");
+			if (etag != null) {
+				((HttpServletResponse) res).setHeader(HttpHeaders.ETAG, etag);
+			}
+			res.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+		};
+		filter.doFilter(request, response, chain);
+		return response;
+	}
+
+	private String gunzip(byte[] compressed) throws IOException {
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+			return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		}
+	}
+}
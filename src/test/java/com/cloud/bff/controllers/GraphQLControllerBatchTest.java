@@ -0,0 +1,83 @@
+package com.cloud.bff.controllers;
+
+import com.cloud.bff.config.GraphQLProperties;
+import com.cloud.bff.graphql.CostAnalyzer;
+import com.cloud.bff.graphql.OperationCache;
+import com.cloud.bff.graphql.OperationExecutor;
+import com.cloud.bff.graphql.PersistedQueryStore;
+import com.cloud.bff.models.ResponseModel;
+import com.cloud.bff.services.PageService;
+import com.cloud.bff.services.ReactiveRoleService;
+import com.cloud.bff.services.ReactiveUserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class GraphQLControllerBatchTest {
+
+	private final ReactiveRoleService roleService = mock(ReactiveRoleService.class);
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private GraphQLController controller;
+
+	@BeforeEach
+	void setUp() {
+		GraphQLProperties properties = new GraphQLProperties();
+		properties.getCost().setMaxCost(25);
+		properties.getCost().setListCost(10);
+		ObjectMapper objectMapper = new ObjectMapper();
+		controller = new GraphQLController(objectMapper,
+				new PersistedQueryStore(properties, meterRegistry),
+				new OperationCache(properties, meterRegistry),
+				new OperationExecutor(roleService, mock(ReactiveUserService.class), mock(PageService.class), objectMapper),
+				new CostAnalyzer(properties, meterRegistry),
+				properties);
+
+		ResponseModel roles = new ResponseModel();
+		roles.setStatus(200);
+		roles.setData(List.of());
+		when(roleService.getRoles()).thenReturn(Mono.just(roles));
+	}
+
+	@Test
+	void rejectsABatchWhoseOperationsAddUpToMoreThanTheBudget() {
+		// Each operation costs 20, under the budget of 25; together they cost 60
+		String batch = "[" + "{\"query\":\"{ a: roles { id } b: roles { id } }\"},".repeat(2)
+				+ "{\"query\":\"{ a: roles { id } b: roles { id } }\"}]";
+
+		ResponseModel response = (ResponseModel) controller.handleGraphQL(batch, clientHeader()).block();
+
+		assertEquals(400, response.getStatus());
+		assertEquals("Batch cost 60 exceeds the maximum of 25", response.getError());
+		verifyNoInteractions(roleService);
+		assertEquals(1.0, meterRegistry.get("bff.graphql.cost.rejected").tag("client", "dashboard").counter().count());
+	}
+
+	@Test
+	void runsABatchWithinTheBudget() {
+		String batch = "[{\"query\":\"{ roles { id } }\"},{\"query\":\"{ roles { title } }\"}]";
+
+		List<?> responses = (List<?>) controller.handleGraphQL(batch, clientHeader()).block();
+
+		assertEquals(2, responses.size());
+		verify(roleService, times(2)).getRoles();
+		assertEquals(20.0, meterRegistry.get("bff.graphql.cost").tag("client", "dashboard").counter().count());
+	}
+
+	private HttpHeaders clientHeader() {
+		HttpHeaders headers = new HttpHeaders();
+		headers.add("X-Client-Id", "dashboard");
+		return headers;
+	}
+}
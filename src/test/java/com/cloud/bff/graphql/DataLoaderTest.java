@@ -0,0 +1,70 @@
+package com.cloud.bff.graphql;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DataLoaderTest {
+
+	private final List<Set<Long>> batches = new ArrayList<>();
+	private final DataLoader<Long, String> loader = new DataLoader<>(ids -> {
+		batches.add(Set.copyOf(ids));
+		return Mono.just(ids.stream().filter(id -> id > 0).collect(Collectors.toMap(id -> id, id -> "role " + id)));
+	});
+
+	@Test
+	void answersEveryKeyLoadedBeforeADispatchWithOneCall() {
+		Mono<String> first = loader.load(1L);
+		Mono<String> second = loader.load(2L);
+		Mono<String> again = loader.load(1L);
+
+		loader.dispatch().block();
+
+		assertEquals(List.of(Set.of(1L, 2L)), batches, "one call for the distinct keys");
+		assertEquals("role 1", first.block());
+		assertEquals("role 2", second.block());
+		assertEquals("role 1", again.block());
+	}
+
+	@Test
+	void startsANewBatchAfterEachDispatch() {
+		Mono<String> first = loader.load(1L);
+		loader.dispatch().block();
+		Mono<String> second = loader.load(1L);
+		loader.dispatch().block();
+		loader.dispatch().block();
+
+		assertEquals(List.of(Set.of(1L), Set.of(1L)), batches, "an empty dispatch makes no call");
+		assertEquals("role 1", first.block());
+		assertEquals("role 1", second.block());
+	}
+
+	@Test
+	void resolvesUnansweredKeysEmpty() {
+		Mono<String> missing = loader.load(-1L);
+		loader.dispatch().block();
+
+		assertNull(missing.block());
+	}
+
+	@Test
+	void failsEveryKeyOfAFailedBatch() {
+		DataLoader<Long, String> failing = new DataLoader<>(ids -> Mono.<Map<Long, String>>error(
+				new IllegalStateException("upstream down")));
+		Mono<String> first = failing.load(1L);
+		Mono<String> second = failing.load(2L);
+
+		assertThrows(IllegalStateException.class, () -> failing.dispatch().block());
+		assertEquals("upstream down", assertThrows(IllegalStateException.class, first::block).getMessage());
+		assertEquals("upstream down", assertThrows(IllegalStateException.class, second::block).getMessage());
+	}
+}
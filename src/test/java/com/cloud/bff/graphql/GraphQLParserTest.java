@@ -0,0 +1,194 @@
+package com.cloud.bff.graphql;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GraphQLParserTest {
+
+	private static final int MAX_NESTING = 20;
+	private static final int MAX_SELECTIONS = 1000;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@Test
+	void inlinesNamedAndInlineFragments() {
+		OperationDefinition operation = parse("""
+				query Roles($withDescription: Boolean = false) {
+				  roles { ...RoleFields ... @include(if: $withDescription) { description } }
+				}
+				fragment RoleFields on Role { id title }
+				""").getOperation(null);
+
+		Field roles = operation.getSelections().get(0);
+		assertEquals(List.of("id", "title", "description"), aliases(roles.getSelections()));
+
+		Field description = roles.getSelections().get(2);
+		assertFalse(description.isIncluded(operation.variables(null)), "the fragment's directive applies to its fields");
+		assertTrue(description.isIncluded(operation.variables(objectMapper.createObjectNode().put("withDescription", true))));
+	}
+
+	@Test
+	void resolvesVariablesAgainstDefaultsAndTheRequest() {
+		OperationDefinition operation = parse("""
+				query Role($id: ID = 3, $title: String) {
+				  role(id: $id, filter: { title: $title, ids: [$id, 4] }) { id }
+				}
+				""").getOperation("Role");
+		Field role = operation.getSelections().get(0);
+
+		JsonNode defaults = operation.variables(null);
+		assertEquals(3, role.getArguments().get("id").resolve(defaults).asInt());
+		assertTrue(role.getArguments().get("filter").resolve(defaults).get("title").isNull());
+
+		JsonNode provided = operation.variables(objectMapper.createObjectNode().put("id", 7).put("title", "Admin"));
+		JsonNode filter = role.getArguments().get("filter").resolve(provided);
+		assertEquals(7, role.getArguments().get("id").resolve(provided).asInt());
+		assertEquals("Admin", filter.get("title").asText());
+		assertEquals("[7,4]", filter.get("ids").toString());
+	}
+
+	@Test
+	void picksTheOperationByName() {
+		Document document = parse("query A { roles { id } } mutation B { deleteRole(id: 1) }");
+
+		assertEquals(OperationDefinition.Type.QUERY, document.getOperation("A").getType());
+		assertEquals(OperationDefinition.Type.MUTATION, document.getOperation("B").getType());
+	}
+
+	@Test
+	void reportsWhereTheSyntaxErrorIs() {
+		assertEquals("Syntax Error: Expected Name, found <EOF> (line 1, column 15)",
+				syntaxError("{ roles { id }"));
+		assertEquals("Syntax Error: Expected Name, found \")\" (line 3, column 18)",
+				syntaxError("query Role {\n  # a comment\n  role(id: 1, id:) { id }\n}"));
+		assertEquals("Syntax Error: Unterminated string (line 1, column 29)",
+				syntaxError("{ role(title: \"abc) { id } }"));
+		assertEquals("Syntax Error: Expected a field, found \"}\" (line 1, column 11)",
+				syntaxError("{ roles { } }"));
+	}
+
+	@Test
+	void rejectsUnknownAndSelfReferencingFragments() {
+		assertEquals("Unknown fragment \"Missing\"", syntaxError("{ roles { ...Missing } }"));
+		assertEquals("Cannot spread fragment \"A\" within itself",
+				syntaxError("{ roles { ...A } } fragment A on Role { id ...B } fragment B on Role { ...A }"));
+	}
+
+	@Test
+	void mergesTheSameFieldSelectedTwice() {
+		Field role = parse("{ role(id: 1) { id } ... on Query { role(id: 1) { title } } }")
+				.getOperation(null).getSelections().get(0);
+
+		assertEquals(List.of("id", "title"), aliases(role.getSelections()));
+	}
+
+	@Test
+	void rejectsFieldsThatCannotMerge() {
+		assertEquals("Fields \"a\" conflict because \"roles\" and \"users\" are different fields",
+				syntaxError("{ a: roles { id } a: users { id } }"));
+		assertEquals("Fields \"role\" conflict because they have differing arguments",
+				syntaxError("{ role(id: 1) { id } role(id: 2) { title } }"));
+		assertEquals("Fields \"role\" conflict because they have differing arguments",
+				syntaxError("query($a: ID, $b: ID) { role(id: $a) { id } ...F } fragment F on Query { role(id: $b) { id } }"));
+		assertEquals("Fields \"role\" conflict because they have differing arguments",
+				syntaxError("{ role(id: 1) { id } role { id } }"));
+		assertEquals("Fields \"id\" conflict because \"id\" and \"title\" are different fields",
+				syntaxError("{ role(id: 1) { id } role(id: 1) { id: title } }"));
+	}
+
+	@Test
+	void acceptsNestingUpToTheLimit() {
+		String query = "{ " + "a { ".repeat(MAX_NESTING - 1) + "b" + " }".repeat(MAX_NESTING);
+
+		assertEquals(1, parse(query).getOperation(null).getSelections().size());
+	}
+
+	@Test
+	void rejectsDeepNestingWithoutOverflowingTheStack() {
+		int depth = 100_000;
+		assertTrue(syntaxError("{ a ".repeat(depth) + "}".repeat(depth))
+				.startsWith("Syntax Error: Document is nested more than " + MAX_NESTING + " levels deep"));
+		assertTrue(syntaxError("{ a(v: " + "[".repeat(depth) + "]".repeat(depth) + ") }")
+				.startsWith("Syntax Error: Document is nested more than"));
+		assertTrue(syntaxError("{ a(v: " + "{ b: ".repeat(depth) + "1" + " }".repeat(depth) + ") }")
+				.startsWith("Syntax Error: Document is nested more than"));
+		assertTrue(syntaxError("query($v: " + "[".repeat(depth) + "ID" + "]".repeat(depth) + ") { a }")
+				.startsWith("Syntax Error: Document is nested more than"));
+	}
+
+	@Test
+	void rejectsLongChainsOfFragmentSpreads() {
+		StringBuilder query = new StringBuilder("{ ...F0 }");
+		for (int i = 0; i < 1000; i++) {
+			query.append(" fragment F").append(i).append(" on Query { ...F").append(i + 1).append(" }");
+		}
+		query.append(" fragment F1000 on Query { roles { id } }");
+
+		assertEquals("Fragment spreads are nested more than " + MAX_NESTING + " levels deep", syntaxError(query.toString()));
+	}
+
+	@Test
+	void expandsEachFragmentOnceAndCapsTheSelectedFields() {
+		// Each fragment spreads the next one twice: 2^19 fields once expanded, from under a kilobyte of text
+		StringBuilder query = new StringBuilder("{ ...F0 }");
+		for (int i = 0; i < 19; i++) {
+			query.append(" fragment F").append(i).append(" on Query { a { ...F").append(i + 1)
+					.append(" } b { ...F").append(i + 1).append(" } }");
+		}
+		query.append(" fragment F19 on Query { id }");
+
+		long start = System.nanoTime();
+		assertEquals("Query selects more than " + MAX_SELECTIONS + " fields", syntaxError(query.toString()));
+		assertTrue(System.nanoTime() - start < 200_000_000L, "rejected without expanding every spread");
+	}
+
+	@Test
+	void sharesAFragmentSpreadInSeveralPlaces() {
+		OperationDefinition operation = parse("""
+				query($all: Boolean = true) {
+				  a: roles { ...R } b: roles { ...R ...R } c: roles { ...R @include(if: $all) }
+				}
+				fragment R on Role { id title }
+				""").getOperation(null);
+
+		for (Field field : operation.getSelections()) {
+			assertEquals(List.of("id", "title"), aliases(field.getSelections()), field.getAlias());
+		}
+		assertEquals("include", operation.getSelections().get(2).getSelections().get(0).getDirectives().get(0).getName());
+		assertTrue(operation.getSelections().get(0).getSelections().get(0).getDirectives().isEmpty(),
+				"directives of one spread do not leak into the shared fragment");
+	}
+
+	@Test
+	void tellsOperationsThatCarryValuesInTheirText() {
+		assertTrue(operation("mutation { createUser(email: \"a@b.c\", password: \"secret\") { id } }").hasInlineValues());
+		assertTrue(operation("mutation($p: String) { createUser(input: { password: $p, roles: [1] }) { id } }").hasInlineValues());
+		assertTrue(operation("mutation($p: String = \"secret\") { createUser(password: $p) { id } }").hasInlineValues());
+		assertFalse(operation("mutation($e: String, $p: String) { createUser(input: { email: $e, password: [$p] }) { id } }")
+				.hasInlineValues());
+	}
+
+	private OperationDefinition operation(String query) {
+		return parse(query).getOperation(null);
+	}
+
+	private Document parse(String query) {
+		return GraphQLParser.parse(query, MAX_NESTING, MAX_SELECTIONS);
+	}
+
+	private String syntaxError(String query) {
+		return assertThrows(GraphQLSyntaxException.class, () -> parse(query)).getMessage();
+	}
+
+	private List<String> aliases(List<Field> fields) {
+		return fields.stream().map(Field::getAlias).toList();
+	}
+}
@@ -0,0 +1,48 @@
+package com.cloud.bff.graphql;
+
+import com.cloud.bff.config.GraphQLProperties;
+import com.cloud.bff.models.ResponseModel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class OperationCacheTest {
+
+	private final OperationCache cache = new OperationCache(new GraphQLProperties(), new SimpleMeterRegistry());
+
+	@Test
+	void reusesThePlanForTheSameQueryText() {
+		AtomicInteger analysed = new AtomicInteger();
+		Function<String, OperationPlan> analyse = query -> {
+			analysed.incrementAndGet();
+			return input -> Mono.just(new ResponseModel());
+		};
+
+		OperationPlan first = cache.get("/graphql", "{ roles { id } }", analyse);
+		OperationPlan second = cache.get("/graphql", "{\n  roles {\n    id\n  }\n}", analyse);
+
+		assertSame(first, second);
+		assertEquals(1, analysed.get());
+	}
+
+	@Test
+	void analysesUncachedPlansOnEveryRequest() {
+		AtomicInteger analysed = new AtomicInteger();
+		Function<String, OperationPlan> analyse = query -> {
+			analysed.incrementAndGet();
+			return OperationPlan.uncached(input -> Mono.just(new ResponseModel()));
+		};
+		String mutation = "mutation { createUser(email: \"a@b.c\", password: \"secret\") { id } }";
+
+		cache.get("/api/users/graphql", mutation, analyse);
+		cache.get("/api/users/graphql", mutation, analyse);
+
+		assertEquals(2, analysed.get());
+	}
+}
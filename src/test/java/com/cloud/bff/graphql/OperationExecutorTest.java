@@ -0,0 +1,124 @@
+package com.cloud.bff.graphql;
+
+import com.cloud.bff.models.PageModel;
+import com.cloud.bff.models.ResponseModel;
+import com.cloud.bff.models.RoleModel;
+import com.cloud.bff.models.UserModel;
+import com.cloud.bff.services.PageService;
+import com.cloud.bff.services.ReactiveRoleService;
+import com.cloud.bff.services.ReactiveUserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class OperationExecutorTest {
+
+	private final ReactiveRoleService roleService = mock(ReactiveRoleService.class);
+	private final ReactiveUserService userService = mock(ReactiveUserService.class);
+	private final PageService pageService = mock(PageService.class);
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final OperationExecutor executor = new OperationExecutor(roleService, userService, pageService, objectMapper);
+
+	@Test
+	void projectsNestedListsOntoTheirSelections() throws Exception {
+		when(roleService.getRoles()).thenReturn(Mono.just(success(List.of(
+				Map.of("id", 1, "title", "Admin", "permissions", List.of(
+						Map.of("name", "read", "scope", "all"),
+						Map.of("name", "write", "scope", "own")),
+						"grid", List.of(List.of(Map.of("x", 1, "y", 2)))),
+				Map.of("id", 2, "title", "Guest", "permissions", List.of(), "grid", List.of())))));
+
+		ResponseModel response = execute("{ roles { id permissions { name } grid { x } } }");
+
+		assertEquals(200, response.getStatus());
+		assertEquals("[{\"id\":1,\"permissions\":[{\"name\":\"read\"},{\"name\":\"write\"}],\"grid\":[[{\"x\":1}]]},"
+				+ "{\"id\":2,\"permissions\":[],\"grid\":[]}]", json(response.getData()));
+	}
+
+	@Test
+	void projectsTheItemsOfAPage() throws Exception {
+		RoleModel role = new RoleModel();
+		role.setId(1L);
+		role.setTitle("Admin");
+		PageModel<RoleModel> page = new PageModel<>();
+		page.setItems(List.of(role));
+		page.setNextCursor("c1");
+		page.setHasNextPage(true);
+		when(pageService.getRolesPage(2, null)).thenReturn(Mono.just(success(page)));
+
+		ResponseModel response = execute("{ roles(first: 2) { items { title __typename } nextCursor } }");
+
+		assertEquals("{\"items\":[{\"title\":\"Admin\",\"__typename\":\"Role\"}],\"nextCursor\":\"c1\"}",
+				json(response.getData()));
+	}
+
+	@Test
+	void readsOnlyTheSelectedPropertiesOfAModel() throws Exception {
+		UserModel user = new UserModel() {
+			@Override
+			public String getPassword() {
+				throw new AssertionError("an unselected password must not be read");
+			}
+		};
+		user.setId(1L);
+		user.setEmail("a@b.c");
+		when(userService.getUsers()).thenReturn(Mono.just(success(List.of(user))));
+
+		ResponseModel response = execute("{ users { email } }");
+
+		assertEquals(200, response.getStatus());
+		assertEquals("[{\"email\":\"a@b.c\"}]", json(response.getData()));
+	}
+
+	@Test
+	void loadsEachIdOnceForAllFieldsOfAQuery() throws Exception {
+		when(roleService.getRoleById(anyLong())).thenAnswer(invocation -> {
+			RoleModel role = new RoleModel();
+			role.setId(invocation.getArgument(0));
+			role.setTitle("Role " + role.getId());
+			return Mono.just(success(role));
+		});
+
+		ResponseModel response = execute("{ a: role(id: 1) { id } b: getRoleById(id: \"1\") { title } c: role(id: 2) { id } }");
+
+		verify(roleService, times(1)).getRoleById(1L);
+		verify(roleService, times(1)).getRoleById(2L);
+		assertEquals("{\"a\":{\"id\":1},\"b\":{\"title\":\"Role 1\"},\"c\":{\"id\":2}}", json(response.getData()));
+	}
+
+	@Test
+	void rejectsUnknownFieldsBeforeCallingAnyService() {
+		ResponseModel response = execute("{ roles { id } secrets { id } }");
+
+		assertEquals(400, response.getStatus());
+		assertEquals("Cannot query field \"secrets\" on type \"Query\"", response.getError());
+		verifyNoInteractions(roleService, userService, pageService);
+	}
+
+	private ResponseModel execute(String query) {
+		return executor.execute(GraphQLParser.parse(query, 20, 1000), new ExecutionInput(null, null, null)).block();
+	}
+
+	private ResponseModel success(Object data) {
+		ResponseModel responseModel = new ResponseModel();
+		responseModel.setStatus(200);
+		responseModel.setMessage("Success");
+		responseModel.setData(data);
+		return responseModel;
+	}
+
+	private String json(Object value) throws Exception {
+		return objectMapper.writeValueAsString(value);
+	}
+}
@@ -0,0 +1,67 @@
+package com.cloud.bff.services;
+
+import com.cloud.bff.models.PageModel;
+import com.cloud.bff.models.ResponseModel;
+import com.cloud.bff.models.RoleModel;
+import com.cloud.bff.services.serviceImpl.PageServiceImpl;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PageServiceImplTest {
+
+	private final ReactiveRoleService roleService = mock(ReactiveRoleService.class);
+	private final PageService pageService = new PageServiceImpl(mock(ReactiveUserService.class), roleService);
+
+	@Test
+	void pagesPastItemsWithoutAnId() {
+		// Listings sort null ids last
+		when(roleService.getRoles()).thenReturn(Mono.just(listing(1L, 2L, 3L, null, null, null)));
+
+		List<String> titles = new ArrayList<>();
+		String cursor = null;
+		do {
+			ResponseModel response = pageService.getRolesPage(2, cursor).block();
+			assertEquals(200, response.getStatus(), response.getError());
+			PageModel<?> page = (PageModel<?>) response.getData();
+			page.getItems().forEach(role -> titles.add(((RoleModel) role).getTitle()));
+			cursor = page.getNextCursor();
+		} while (cursor != null);
+
+		assertEquals(List.of("1", "2", "3", "null#3", "null#4", "null#5"), titles);
+	}
+
+	@Test
+	void rejectsCursorsItDidNotIssue() {
+		when(roleService.getRoles()).thenReturn(Mono.just(listing(1L)));
+
+		for (String cursor : List.of("aWQ6bnVsbA", "cG9zOi0x", "Zm9vOjE")) {
+			ResponseModel response = pageService.getRolesPage(2, cursor).block();
+			assertEquals(400, response.getStatus(), cursor);
+			assertNull(response.getData());
+		}
+	}
+
+	private ResponseModel listing(Long... ids) {
+		List<RoleModel> roles = new ArrayList<>();
+		List<Long> idList = Arrays.asList(ids);
+		for (int i = 0; i < idList.size(); i++) {
+			RoleModel role = new RoleModel();
+			role.setId(idList.get(i));
+			role.setTitle(idList.get(i) != null ? idList.get(i).toString() : "null#" + i);
+			roles.add(role);
+		}
+		ResponseModel responseModel = new ResponseModel();
+		responseModel.setStatus(200);
+		responseModel.setData(roles);
+		return responseModel;
+	}
+}
@@ -0,0 +1,76 @@
+package com.cloud.bff.upstream;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest {
+
+	@Test
+	void opensOnceTheFailureRateReachesTheThreshold() {
+		CircuitBreaker breaker = new CircuitBreaker("test", 10, 4, 50, Duration.ofMinutes(1), 2);
+
+		breaker.onSuccess();
+		breaker.onFailure();
+		breaker.onSuccess();
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.getState(), "below minimum calls");
+
+		breaker.onSuccess();
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.getState(), "1 failure in 4 calls is under 50%");
+
+		breaker.onFailure();
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.getState(), "2 failures in 5 calls is under 50%");
+
+		breaker.onFailure();
+		assertEquals(CircuitBreaker.State.OPEN, breaker.getState(), "3 failures in 6 calls reaches 50%");
+		assertFalse(breaker.tryAcquirePermission(), "an open breaker rejects calls until the wait is over");
+	}
+
+	@Test
+	void halfOpenProbesThatSucceedCloseTheBreaker() {
+		CircuitBreaker breaker = openBreaker();
+
+		assertTrue(breaker.tryAcquirePermission());
+		assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+		assertTrue(breaker.tryAcquirePermission());
+		assertFalse(breaker.tryAcquirePermission(), "only the permitted probes go through");
+
+		breaker.onSuccess();
+		assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+		breaker.onSuccess();
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+		assertTrue(breaker.tryAcquirePermission());
+	}
+
+	@Test
+	void aFailedHalfOpenProbeReopensTheBreaker() {
+		CircuitBreaker breaker = openBreaker();
+
+		assertTrue(breaker.tryAcquirePermission());
+		breaker.onFailure();
+		assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+	}
+
+	@Test
+	void aReleasedProbeGivesItsSlotBack() {
+		CircuitBreaker breaker = openBreaker();
+
+		assertTrue(breaker.tryAcquirePermission());
+		assertTrue(breaker.tryAcquirePermission());
+		breaker.releasePermission();
+		assertTrue(breaker.tryAcquirePermission());
+	}
+
+	// Waits zero time in the open state, so the next permission request moves it to half-open
+	private CircuitBreaker openBreaker() {
+		CircuitBreaker breaker = new CircuitBreaker("test", 4, 2, 50, Duration.ZERO, 2);
+		breaker.onFailure();
+		breaker.onFailure();
+		assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+		return breaker;
+	}
+}
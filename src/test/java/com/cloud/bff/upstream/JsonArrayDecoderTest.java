@@ -0,0 +1,132 @@
+package com.cloud.bff.upstream;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.buffer.Unpooled;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.core.io.buffer.NettyDataBuffer;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JsonArrayDecoderTest {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final JsonArrayDecoder rolesDecoder = new JsonArrayDecoder(objectMapper, "data", "getAllRoles");
+
+	@Test
+	void decodesElementsSplitAcrossBuffersAtEveryByte() {
+		String body = "{\"data\":{\"getAllRoles\":[{\"id\":1,\"title\":\"Admin\"},{\"id\":2,\"title\":\"Señor\"}]}}";
+
+		// Every chunk size splits tokens, strings and the two-byte "ñ" at some point
+		for (int chunkSize = 1; chunkSize <= 8; chunkSize++) {
+			List<JsonNode> roles = rolesDecoder.decode(split(body, chunkSize)).collectList().block();
+
+			assertEquals(2, roles.size(), "chunk size " + chunkSize);
+			assertEquals("Admin", roles.get(0).path("title").asText(), "chunk size " + chunkSize);
+			assertEquals("Señor", roles.get(1).path("title").asText(), "chunk size " + chunkSize);
+		}
+	}
+
+	@Test
+	void keepsNestedObjectsAndBracketsInsideStrings() {
+		String body = "{\"data\":{\"getAllRoles\":[{\"id\":1,\"title\":\"a ] b [\",\"meta\":{\"tags\":[\"x\",[\"y\"]]}},"
+				+ "{\"id\":2,\"title\":\"}{\"}]}}";
+
+		List<JsonNode> roles = rolesDecoder.decode(split(body, 3)).collectList().block();
+
+		assertEquals(2, roles.size());
+		assertEquals("a ] b [", roles.get(0).path("title").asText());
+		assertEquals("y", roles.get(0).at("/meta/tags/1/0").asText());
+		assertEquals("}{", roles.get(1).path("title").asText());
+	}
+
+	@Test
+	void ignoresArraysOutsideThePath() {
+		String body = "{\"extensions\":{\"warnings\":[\"slow\"]},\"data\":{\"other\":[1,2],\"getAllRoles\":[{\"id\":7}]}}";
+
+		List<JsonNode> roles = rolesDecoder.decode(split(body, 5)).collectList().block();
+
+		assertEquals(1, roles.size());
+		assertEquals(7, roles.get(0).path("id").asInt());
+	}
+
+	@Test
+	void decodesScalarElementsOfATopLevelArray() {
+		JsonArrayDecoder topLevel = new JsonArrayDecoder(objectMapper);
+
+		List<JsonNode> values = topLevel.decode(split("[1, \"two\", null, [3]]", 2)).collectList().block();
+
+		assertEquals(4, values.size());
+		assertEquals("two", values.get(1).asText());
+		assertTrue(values.get(2).isNull());
+		assertTrue(values.get(3).isArray());
+	}
+
+	@Test
+	void emitsNothingWhenTheBodyHasNoArrayAtThePath() {
+		assertEquals(List.of(), rolesDecoder.decode(split("{\"data\":{\"getAllRoles\":null}}", 4))
+				.collectList().block());
+		assertEquals(List.of(), rolesDecoder.decode(split("{\"errors\":[],\"data\":{\"getAllRoles\":null}}", 4))
+				.collectList().block());
+	}
+
+	@Test
+	void failsWhenTheUpstreamAnswersWithErrors() {
+		UpstreamErrorException failed = assertThrows(UpstreamErrorException.class, () -> rolesDecoder
+				.decode(split("{\"errors\":[{\"message\":\"Unauthorized\"}],\"data\":null}", 4)).collectList().block());
+		assertTrue(failed.getMessage().contains("Unauthorized"));
+
+		assertThrows(UpstreamErrorException.class, () -> rolesDecoder
+				.decode(split("{\"data\":{\"getAllRoles\":[{\"id\":1}]},\"errors\":[{\"message\":\"partial\"}]}", 5))
+				.collectList().block());
+	}
+
+	@Test
+	void failsOnMalformedJson() {
+		assertThrows(RuntimeException.class,
+				() -> rolesDecoder.decode(split("{\"data\":{\"getAllRoles\":[{\"id\":1,]}}", 4)).collectList().block());
+	}
+
+	@Test
+	void readsOneBufferAheadAndReleasesItOnCancel() {
+		NettyDataBufferFactory factory = new NettyDataBufferFactory(UnpooledByteBufAllocator.DEFAULT);
+		List<NettyDataBuffer> allocated = new ArrayList<>();
+		// Like a connection, pushes as many buffers as were requested without waiting for them to be used
+		Flux<DataBuffer> body = Flux.create(sink -> sink.onRequest(requested -> {
+			for (long i = 0; i < requested && allocated.size() < 100; i++) {
+				NettyDataBuffer buffer = factory.wrap(Unpooled.copiedBuffer(
+						allocated.isEmpty() ? "[1," : "1,", StandardCharsets.UTF_8));
+				allocated.add(buffer);
+				sink.next(buffer);
+			}
+		}));
+
+		List<JsonNode> values = new JsonArrayDecoder(objectMapper).decode(body).take(1).collectList().block();
+
+		assertEquals(1, values.size());
+		assertTrue(allocated.size() <= 3, "buffers read ahead: " + allocated.size());
+		allocated.forEach(buffer -> assertEquals(0, buffer.getNativeBuffer().refCnt(), "leaked buffer"));
+	}
+
+	private Flux<DataBuffer> split(String body, int chunkSize) {
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		List<DataBuffer> buffers = new ArrayList<>();
+		for (int from = 0; from < bytes.length; from += chunkSize) {
+			byte[] chunk = Arrays.copyOfRange(bytes, from, Math.min(bytes.length, from + chunkSize));
+			buffers.add(DefaultDataBufferFactory.sharedInstance.wrap(chunk));
+		}
+		return Flux.fromIterable(buffers);
+	}
+}
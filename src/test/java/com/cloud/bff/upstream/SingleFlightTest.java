@@ -0,0 +1,49 @@
+package com.cloud.bff.upstream;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SingleFlightTest {
+
+	private final SingleFlight<String, String> flight = new SingleFlight<>("test", new SimpleMeterRegistry());
+
+	@Test
+	void aShortDeadlineDoesNotFailCallersSharingTheFlight() throws Exception {
+		AtomicInteger calls = new AtomicInteger();
+		AtomicBoolean sawDeadline = new AtomicBoolean();
+		Sinks.One<String> upstream = Sinks.one();
+		Mono<String> call = Mono.deferContextual(context -> {
+			calls.incrementAndGet();
+			sawDeadline.set(context.hasKey(Deadline.class));
+			return upstream.asMono();
+		});
+
+		CompletableFuture<String> hurried = flight.execute("all", () -> call)
+				.contextWrite(context -> context.put(Deadline.class, Deadline.after(Duration.ofMillis(20))))
+				.toFuture();
+		CompletableFuture<String> patient = flight.execute("all", () -> call)
+				.contextWrite(context -> context.put(Deadline.class, Deadline.after(Duration.ofSeconds(5))))
+				.toFuture();
+
+		ExecutionException late = assertThrows(ExecutionException.class, hurried::get);
+		assertInstanceOf(DeadlineExceededException.class, late.getCause());
+		upstream.tryEmitValue("roles");
+
+		assertEquals("roles", patient.get());
+		assertEquals(1, calls.get());
+		assertFalse(sawDeadline.get(), "the shared call must not run under any one caller's deadline");
+	}
+}
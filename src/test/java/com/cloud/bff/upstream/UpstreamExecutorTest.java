@@ -0,0 +1,169 @@
+package com.cloud.bff.upstream;
+
+import com.cloud.bff.config.UpstreamProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.net.ConnectException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class UpstreamExecutorTest {
+
+	private UpstreamProperties properties;
+	private SimpleMeterRegistry meterRegistry;
+	private UpstreamExecutor executor;
+
+	@BeforeEach
+	void setUp() {
+		properties = new UpstreamProperties();
+		properties.getCircuitBreaker().setSlidingWindowSize(10);
+		properties.getCircuitBreaker().setMinimumCalls(5);
+		properties.getCircuitBreaker().setFailureRateThreshold(50);
+		meterRegistry = new SimpleMeterRegistry();
+		executor = new UpstreamExecutor(properties, meterRegistry);
+	}
+
+	@Test
+	void shortCallerDeadlinesDoNotOpenTheBreaker() {
+		for (int i = 0; i < 10; i++) {
+			Mono<String> slowCall = executor.execute("graphql", Mono.delay(Duration.ofMillis(400)).thenReturn("late"))
+					.contextWrite(context -> context.put(Deadline.class, Deadline.after(Duration.ofMillis(20))));
+			assertThrows(DeadlineExceededException.class, slowCall::block);
+		}
+
+		assertEquals(0.0, circuitState("graphql"), "caller deadlines must not count as upstream failures");
+		assertEquals("ok", executor.execute("graphql", Mono.just("ok")).block());
+	}
+
+	@Test
+	void callsOverTheBreakerTimeoutCountAsFailures() {
+		properties.getCircuitBreaker().setCallTimeout(Duration.ofMillis(20));
+
+		for (int i = 0; i < 5; i++) {
+			Mono<String> slowCall = executor.execute("graphql", Mono.delay(Duration.ofMillis(400)).thenReturn("late"));
+			assertThrows(RuntimeException.class, slowCall::block);
+		}
+
+		assertEquals(1.0, circuitState("graphql"));
+		UpstreamUnavailableException rejected = assertThrows(UpstreamUnavailableException.class,
+				() -> executor.execute("graphql", Mono.just("ok")).block());
+		assertEquals("Circuit breaker for upstream 'graphql' is open", rejected.getMessage());
+	}
+
+	@Test
+	void aFullBulkheadRejectsWithoutCallingTheUpstream() {
+		properties.getBulkhead().setMaxConcurrentCalls(1);
+		Sinks.One<String> inFlight = Sinks.one();
+		Disposable first = executor.execute("userRest", inFlight.asMono()).subscribe();
+
+		AtomicBoolean called = new AtomicBoolean();
+		UpstreamUnavailableException rejected = assertThrows(UpstreamUnavailableException.class,
+				() -> executor.execute("userRest", Mono.fromCallable(() -> {
+					called.set(true);
+					return "ok";
+				})).block());
+
+		assertEquals("Too many concurrent calls to upstream 'userRest'", rejected.getMessage());
+		assertFalse(called.get());
+		assertEquals(1.0, meterRegistry.get("bff.upstream.rejected")
+				.tags("upstream", "userRest", "reason", "bulkhead_full").counter().count());
+
+		inFlight.tryEmitValue("done");
+		first.dispose();
+		assertEquals("ok", executor.execute("userRest", Mono.just("ok")).block(), "the slot is released afterwards");
+	}
+
+	@Test
+	void clientErrorsAreNotRetried() {
+		fastRetries();
+		AtomicInteger attempts = new AtomicInteger();
+
+		assertThrows(WebClientResponseException.class,
+				() -> executor.retry("roles.getRoles", failing(attempts, responseError(400))).block());
+		assertEquals(1, attempts.get());
+	}
+
+	@Test
+	void gatewayErrorsAreRetriedUpToTheAttemptLimit() {
+		fastRetries();
+		AtomicInteger attempts = new AtomicInteger();
+
+		assertThrows(WebClientResponseException.class,
+				() -> executor.retry("roles.getRoles", failing(attempts, responseError(503))).block());
+		assertEquals(3, attempts.get());
+		assertEquals(2.0, meterRegistry.get("bff.upstream.retries").tag("operation", "roles.getRoles").counter().count());
+	}
+
+	@Test
+	void connectionErrorsAreRetriedUpToTheAttemptLimit() {
+		fastRetries();
+		AtomicInteger attempts = new AtomicInteger();
+		WebClientRequestException connectionRefused = new WebClientRequestException(
+				new ConnectException("Connection refused"), HttpMethod.GET, URI.create("http://upstream/api"),
+				new HttpHeaders());
+
+		assertThrows(WebClientRequestException.class,
+				() -> executor.retry("users.getUsers", failing(attempts, connectionRefused)).block());
+		assertEquals(3, attempts.get());
+	}
+
+	@Test
+	void anEmptyBudgetStopsRetries() {
+		fastRetries();
+		properties.getRetry().setBudgetMaxTokens(0);
+		AtomicInteger attempts = new AtomicInteger();
+
+		assertThrows(WebClientResponseException.class,
+				() -> executor.retry("roles.getRoles", failing(attempts, responseError(503))).block());
+		assertEquals(1, attempts.get());
+		assertEquals(1.0, meterRegistry.get("bff.upstream.retry.denied").tag("operation", "roles.getRoles").counter().count());
+	}
+
+	@Test
+	void aRetrySucceedsOnceTheUpstreamRecovers() {
+		fastRetries();
+		AtomicInteger attempts = new AtomicInteger();
+		Mono<String> recovering = Mono.defer(() -> attempts.incrementAndGet() < 2
+				? Mono.error(responseError(502))
+				: Mono.just("ok"));
+
+		assertEquals("ok", executor.retry("roles.getRoles", recovering).block());
+		assertEquals(2, attempts.get());
+	}
+
+	private void fastRetries() {
+		properties.getRetry().setMaxAttempts(3);
+		properties.getRetry().setBaseDelay(Duration.ofMillis(1));
+		properties.getRetry().setMaxDelay(Duration.ofMillis(5));
+	}
+
+	private Mono<String> failing(AtomicInteger attempts, Throwable error) {
+		return Mono.defer(() -> {
+			attempts.incrementAndGet();
+			return Mono.error(error);
+		});
+	}
+
+	private WebClientResponseException responseError(int status) {
+		return WebClientResponseException.create(status, "status " + status, new HttpHeaders(), new byte[0], null);
+	}
+
+	private double circuitState(String upstream) {
+		return meterRegistry.get("bff.upstream.circuit.state").tag("upstream", upstream).gauge().value();
+	}
+}